@@ -25,6 +25,7 @@ resource "permitio_resource" "blog" {
     "read"   = { "name" = "read" }
     "update" = { "name" = "update" }
     "delete" = { "name" = "delete" }
+    "import" = { "name" = "import" }
   }
   attributes = {
     "author" = {
@@ -57,6 +58,7 @@ resource "permitio_resource" "comment" {
   name    = "Comments"
   actions = {
     "create" = { "name" = "create" }
+    "read"   = { "name" = "read" }
     "update" = { "name" = "update" }
     "delete" = { "name" = "delete" }
   }
@@ -139,7 +141,7 @@ resource "permitio_role" "viewer" {
   key         = "viewer"
   name        = "viewer"
   description = "Read and comment on all blogs"
-  permissions = ["blog:read", "comment:create"]
+  permissions = ["blog:read", "comment:read", "comment:create"]
   depends_on  = [
     permitio_resource.blog,
     permitio_resource.comment,
@@ -150,17 +152,18 @@ resource "permitio_role" "editor" {
   key         = "editor"
   name        = "editor"
   description = "Create blogs, update and delete them, and delete comments on them"
-  permissions = ["blog:read", "blog:create"]
+  permissions = ["blog:read", "blog:create", "comment:read"]
   depends_on  = [
     permitio_resource.blog,
+    permitio_resource.comment,
   ]
 }
 
 resource "permitio_role" "admin" {
   key         = "admin"
   name        = "admin"
-  description = "Delete any blog or comment"
-  permissions = ["blog:delete", "comment:delete"]
+  description = "Delete any blog or comment, and bulk import blogs"
+  permissions = ["blog:delete", "blog:import", "comment:delete"]
   depends_on  = [
     permitio_resource.blog,
     permitio_resource.comment,
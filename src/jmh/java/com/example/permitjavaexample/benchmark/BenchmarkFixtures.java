@@ -0,0 +1,103 @@
+package com.example.permitjavaexample.benchmark;
+
+import com.example.permitjavaexample.authorization.AuthenticatedUserCache;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.InFlightChecks;
+import com.example.permitjavaexample.authorization.LocalAuthorizationState;
+import com.example.permitjavaexample.authorization.LocalGrantOverlay;
+import com.example.permitjavaexample.authorization.LocalPolicyEvaluator;
+import com.example.permitjavaexample.authorization.PdpClient;
+import com.example.permitjavaexample.authorization.PdpGuard;
+import com.example.permitjavaexample.config.FeedProperties;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.feed.ChangeFeed;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.metrics.PermitMetrics;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.outbox.PermitMutationDispatcher;
+import com.example.permitjavaexample.outbox.PermitOutbox;
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import com.example.permitjavaexample.service.BlogService;
+import com.example.permitjavaexample.service.UserService;
+import com.example.permitjavaexample.tenant.TenantResolver;
+import com.example.permitjavaexample.tenant.TenantShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.permit.sdk.Permit;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Wires the services by hand around a {@link FakePermit}, without starting Spring.
+ */
+public final class BenchmarkFixtures {
+    public final ObjectMapper objectMapper = new ObjectMapper();
+    public final PermitProperties properties = new PermitProperties();
+    public final Permit permit = new FakePermit();
+    public final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    public final BlogRepository blogRepository = new InMemoryBlogRepository();
+    public final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    public final PermitMetrics metrics = new PermitMetrics(registry);
+    public final DecisionCache decisionCache;
+    public final UserService userService;
+    public final ChangeFeed changeFeed;
+    public final BlogService blogService;
+
+    public BenchmarkFixtures(boolean decisionCacheEnabled) {
+        properties.setApiKey("benchmark");
+        properties.setPdpUrl("http://127.0.0.1:1");
+        properties.getDecisionCache().setEnabled(decisionCacheEnabled);
+        properties.getOutbox().setEnabled(false);
+        properties.getHttp().setTransport(PermitProperties.Http.Transport.SDK);
+        decisionCache = new DecisionCache(properties);
+        var localGrants = new LocalGrantOverlay(properties);
+        var localState = new LocalAuthorizationState();
+        LocalPolicyEvaluator localPolicy;
+        try {
+            localPolicy = new LocalPolicyEvaluator(properties, localState, new DefaultResourceLoader(), objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var pdpClient = new PdpClient(properties, objectMapper, HttpClient.newHttpClient(), registry);
+        var authorizationTime = new AuthorizationTimeTracker();
+        userService = new UserService(permit, new AuthenticatedUserCache(permit, localState, properties), decisionCache, new InFlightChecks(properties, registry), localGrants, localState, localPolicy,
+                pdpClient, new PdpGuard(properties, decisionCache, metrics, registry), executor, properties, metrics, authorizationTime);
+        var outbox = new PermitOutbox(new PermitMutationDispatcher(permit, metrics), localGrants, localState, decisionCache, executor, properties, objectMapper);
+        changeFeed = new ChangeFeed(userService, decisionCache, authorizationTime, new FeedProperties(), registry);
+        try {
+            blogService = new BlogService(new TenantShards(blogRepository, new StoreProperties(), new TenantResolver(properties)), userService, outbox, decisionCache, changeFeed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fills the repository with {@code blogs} blogs and spreads {@code comments} comments over
+     * them, {@code commentsPerBlog} per blog starting from the first one.
+     */
+    public void populate(int blogs, int comments, int commentsPerBlog) {
+        int commentId = 0;
+        for (int id = 1; id <= blogs; id++) {
+            var blog = new Blog(id, "author-" + (id % 100), "Blog content " + id);
+            for (int i = 0; i < commentsPerBlog && commentId < comments; i++) {
+                commentId++;
+                blog.addComment(new Comment(commentId, "commenter-" + (commentId % 1000), "Comment content " + commentId));
+            }
+            blogRepository.save(blog);
+        }
+    }
+
+    public void close() {
+        changeFeed.close();
+        executor.shutdownNow();
+    }
+}
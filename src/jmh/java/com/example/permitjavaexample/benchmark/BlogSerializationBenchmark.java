@@ -0,0 +1,55 @@
+package com.example.permitjavaexample.benchmark;
+
+import com.example.permitjavaexample.model.Blog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a blog listing, as returned by {@code GET /api/blogs}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlogSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int blogs;
+
+    @Param({"0", "10", "100"})
+    public int commentsPerBlog;
+
+    private BenchmarkFixtures fixtures;
+    private ObjectMapper objectMapper;
+    private List<Blog> listing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures(false);
+        fixtures.populate(blogs, blogs * commentsPerBlog, commentsPerBlog);
+        objectMapper = fixtures.objectMapper;
+        listing = fixtures.blogRepository.findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public byte[] serializeBlogList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listing);
+    }
+}
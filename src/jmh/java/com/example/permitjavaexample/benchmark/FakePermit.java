@@ -0,0 +1,23 @@
+package com.example.permitjavaexample.benchmark;
+
+import io.permit.sdk.Permit;
+import io.permit.sdk.PermitConfig;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+
+/**
+ * In-process stand-in for the {@code Permit} bean: checks are answered without a PDP round trip,
+ * so benchmarks measure only our side of the authorization path.
+ */
+public class FakePermit extends Permit {
+
+    public FakePermit() {
+        super(new PermitConfig.Builder("benchmark").withPdpAddress("http://127.0.0.1:1").build());
+    }
+
+    @Override
+    public boolean check(User user, String action, Resource resource) {
+        // Deterministic, cheap decision that still depends on the inputs
+        return !"delete".equals(action) || user.getKey().equals(resource.getAttributes().get("author"));
+    }
+}
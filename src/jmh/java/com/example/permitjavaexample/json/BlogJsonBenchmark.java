@@ -0,0 +1,95 @@
+package com.example.permitjavaexample.json;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of a single blog with many comments, as returned by {@code GET /api/blogs/{id}}, written by
+ * Jackson, from cached fragments, and from the whole blog cached per version. The {@code edited}
+ * variants change one comment before every write, so one fragment is serialized again and the
+ * cached blog is assembled again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlogJsonBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int comments;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlogJsonWriter writer = new BlogJsonWriter(objectMapper, uncached());
+    private final BlogJsonWriter cachedWriter = new BlogJsonWriter(objectMapper, new StoreProperties());
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private Blog blog;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        blog = new Blog(1, "editor-1", "Blog content ".repeat(20));
+        for (int i = 1; i <= comments; i++) {
+            blog.addComment(new Comment(i, "viewer-" + (i % 10), "Comment " + i + " content ".repeat(10)));
+        }
+        writer.write(blog, out);
+        cachedWriter.write(blog, out);
+    }
+
+    private static StoreProperties uncached() {
+        var properties = new StoreProperties();
+        properties.setJsonCacheBytes(0);
+        return properties;
+    }
+
+    @Benchmark
+    public void jackson() throws IOException {
+        objectMapper.writeValue(out, blog);
+    }
+
+    @Benchmark
+    public void fragments() throws IOException {
+        writer.write(blog, out);
+    }
+
+    @Benchmark
+    public void cached() throws IOException {
+        cachedWriter.write(blog, out);
+    }
+
+    @Benchmark
+    public void jacksonEdited() throws IOException {
+        edit();
+        objectMapper.writeValue(out, blog);
+    }
+
+    @Benchmark
+    public void fragmentsEdited() throws IOException {
+        edit();
+        writer.write(blog, out);
+    }
+
+    @Benchmark
+    public void cachedEdited() throws IOException {
+        edit();
+        cachedWriter.write(blog, out);
+    }
+
+    private void edit() {
+        int id = edits++ % comments + 1;
+        blog.updateComment(blog.findComment(id).orElseThrow(), "Edited comment " + edits);
+    }
+}
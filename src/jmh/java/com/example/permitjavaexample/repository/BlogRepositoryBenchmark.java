@@ -0,0 +1,59 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.benchmark.BenchmarkFixtures;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blog and comment lookups by id as the store grows. Comments are spread 100 per blog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlogRepositoryBenchmark {
+    private static final int COMMENTS_PER_BLOG = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    public int entries;
+
+    private BenchmarkFixtures fixtures;
+    private BlogRepository blogRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures(false);
+        fixtures.populate(entries, entries, COMMENTS_PER_BLOG);
+        blogRepository = fixtures.blogRepository;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Optional<Blog> getBlogById() {
+        return blogRepository.findById(ThreadLocalRandom.current().nextInt(1, entries + 1));
+    }
+
+    @Benchmark
+    public Optional<Comment> getCommentById() {
+        int commentId = ThreadLocalRandom.current().nextInt(1, entries + 1);
+        int blogId = (commentId - 1) / COMMENTS_PER_BLOG + 1;
+        return blogRepository.findById(blogId).flatMap(blog -> blog.findComment(commentId));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Comment throughput with many threads writing at once, either each to its own blog or all to
+ * one hot blog. Every operation adds a comment and, once the thread has {@value #WINDOW}
+ * outstanding, removes its oldest, so blogs stay the same size. Run with {@code -t} set to 1, 2,
+ * 4... up to the core count to see how throughput scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommentContentionBenchmark {
+    private static final int BLOGS = 1024;
+    private static final int WINDOW = 100;
+
+    @Param({"distinct", "hot"})
+    public String blogs;
+
+    @Param({"memory", "durable"})
+    public String store;
+
+    private BlogRepository blogRepository;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private Blog blog;
+        private int nextCommentId;
+        private final ArrayDeque<Integer> outstanding = new ArrayDeque<>(WINDOW);
+
+        @Setup(Level.Trial)
+        public void setUp(CommentContentionBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            int blogId = benchmark.blogs.equals("hot") ? 1 : thread % BLOGS + 1;
+            blog = benchmark.blogRepository.findById(blogId).orElseThrow();
+            // Ids are unique per thread, and increase so comments keep their order
+            nextCommentId = thread << 24;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (store.equals("durable")) {
+            var properties = new StoreProperties();
+            properties.setDurable(true);
+            properties.setFsync(false);
+            properties.setDirectory(Files.createTempDirectory("comment-contention").toString());
+            blogRepository = new DurableBlogRepository(properties);
+        } else {
+            blogRepository = new InMemoryBlogRepository();
+        }
+        for (int id = 1; id <= BLOGS; id++) {
+            blogRepository.save(new Blog(id, "author-" + id, "Blog content " + id));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (blogRepository instanceof DurableBlogRepository durable) {
+            durable.close();
+        }
+    }
+
+    @Benchmark
+    public void addComment(Writer writer) {
+        churn(writer);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public List<Comment> readComments() {
+        int blogId = blogs.equals("hot") ? 1 : ThreadLocalRandom.current().nextInt(1, Math.min(threads.get(), BLOGS) + 1);
+        return blogRepository.findById(blogId).orElseThrow().getComments();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void writeComments(Writer writer) {
+        churn(writer);
+    }
+
+    private void churn(Writer writer) {
+        int commentId = ++writer.nextCommentId;
+        blogRepository.addComment(writer.blog, new Comment(commentId, "commenter", "Comment content"));
+        writer.outstanding.add(commentId);
+        if (writer.outstanding.size() > WINDOW) {
+            blogRepository.removeComment(writer.blog, writer.outstanding.poll());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.benchmark.BenchmarkFixtures;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import io.permit.sdk.enforcement.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code BlogService.authorize} against an in-process fake PDP. Run with
+ * {@code -prof gc} to see the per-call allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlogServiceAuthorizeBenchmark {
+
+    @Param({"false", "true"})
+    public boolean decisionCache;
+
+    private BenchmarkFixtures fixtures;
+    private BlogService blogService;
+    private User user;
+    private Blog blog;
+    private Comment comment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures(decisionCache);
+        blogService = fixtures.blogService;
+        user = new User.Builder("author-1").build();
+        blog = new Blog(1, "author-1", "Blog content");
+        comment = new Comment(1, "author-1", "Comment content");
+        blog.addComment(comment);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void authorizeBlog() {
+        blogService.authorize(user, "update", blog);
+    }
+
+    @Benchmark
+    public void authorizeComment() {
+        blogService.authorize(user, "delete", comment);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.permit.sdk.Permit;
+import io.permit.sdk.api.PermitApiError;
+import io.permit.sdk.api.PermitContextError;
+import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Users resolved from the {@code Authorization} header, keyed by user key so invalidating one is
+ * a single removal. On a miss the user's attributes are loaded from Permit and their roles in
+ * every tenant recorded in the {@link LocalAuthorizationState}. If that fails the bare user is
+ * cached for a short while only, so enrichment is retried without calling Permit per request.
+ */
+@Component
+public class AuthenticatedUserCache {
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticatedUserCache.class);
+    private static final String BEARER = "Bearer ";
+
+    private record CachedUser(User user, boolean enriched) {
+    }
+
+    private final Permit permit;
+    private final LocalAuthorizationState localState;
+    private final boolean enabled;
+    private final boolean enrich;
+    private final Cache<String, CachedUser> users;
+
+    public AuthenticatedUserCache(Permit permit, LocalAuthorizationState localState, PermitProperties properties) {
+        this.permit = permit;
+        this.localState = localState;
+        var config = properties.getUserCache();
+        this.enabled = config.isEnabled();
+        this.enrich = config.isEnrich();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(Expiry.creating((String key, CachedUser cached) -> cached.enriched() ? config.getTtl() : config.getRetryAfter()))
+                .build();
+    }
+
+    /**
+     * The user identified by an {@code Authorization} header value, or {@code null} if it names none.
+     */
+    public User resolve(String authorization) {
+        if (!enabled) {
+            var key = token(authorization);
+            return key.isEmpty() ? null : new User.Builder(key).build();
+        }
+        return users.get(token(authorization), this::load).user();
+    }
+
+    /**
+     * Like {@link #resolve}, but only if that needs no call to Permit; {@code null} otherwise.
+     */
+    public User getIfPresent(String authorization) {
+        if (!enabled) {
+            return resolve(authorization);
+        }
+        var cached = users.getIfPresent(token(authorization));
+        return cached == null ? null : cached.user();
+    }
+
+    /**
+     * Drops the user. A load of the user still in progress is waited for and dropped too, so roles
+     * it read before a change are not kept.
+     */
+    public void invalidate(String userKey) {
+        users.invalidate(userKey);
+    }
+
+    private CachedUser load(String key) {
+        if (key.isEmpty()) {
+            return new CachedUser(null, true);
+        }
+        if (!enrich) {
+            return new CachedUser(new User.Builder(key).build(), true);
+        }
+        try {
+            var read = permit.api.users.get(key);
+            var builder = new User.Builder(key);
+            if (read.email != null) {
+                builder.withEmail(read.email);
+            }
+            if (read.firstName != null) {
+                builder.withFirstName(read.firstName);
+            }
+            if (read.lastName != null) {
+                builder.withLastName(read.lastName);
+            }
+            if (read.attributes != null) {
+                builder.withAttributes(new HashMap<>(read.attributes));
+            }
+            if (read.roles != null) {
+                read.roles.forEach(role -> localState.assignTenantRole(role.tenant, key, role.role));
+            }
+            return new CachedUser(builder.build(), true);
+        } catch (IOException | PermitApiError | PermitContextError | RuntimeException e) {
+            logger.warn("Failed to load user {} from Permit, retrying later: {}", key, e.getMessage());
+            return new CachedUser(new User.Builder(key).build(), false);
+        }
+    }
+
+    private static String token(String authorization) {
+        return authorization.startsWith(BEARER) ? authorization.substring(BEARER.length()) : authorization;
+    }
+}
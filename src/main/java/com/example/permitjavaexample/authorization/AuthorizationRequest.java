@@ -0,0 +1,6 @@
+package com.example.permitjavaexample.authorization;
+
+import io.permit.sdk.enforcement.Resource;
+
+public record AuthorizationRequest(String action, Resource resource) {
+}
@@ -0,0 +1,246 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.permit.sdk.enforcement.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-evicting cache of PDP decisions. Entries are dropped locally whenever this
+ * service changes authorization state, the TTL bounds staleness for changes made elsewhere.
+ * Decisions are indexed by user and by resource, so invalidation only touches the entries it
+ * drops. Every invalidation also starts a new generation: a decision from a check that started
+ * before the user or resource was invalidated is not cached.
+ * <p>
+ * With the {@code STALE_CACHE} fallback, decisions are also kept much longer as last-known
+ * decisions, which are only read while the PDP is unavailable.
+ */
+@Component
+public class DecisionCache {
+
+    /**
+     * A cache of decisions with an index of its keys by user and by resource.
+     */
+    private static final class IndexedCache {
+        final Cache<DecisionKey, Boolean> cache;
+        final Map<String, Set<DecisionKey>> byUser = new ConcurrentHashMap<>();
+        final Map<String, Set<DecisionKey>> byResource = new ConcurrentHashMap<>();
+
+        IndexedCache(long maximumSize, Duration ttl, boolean recordStats) {
+            var builder = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    // Runs while the entry is being removed, so it never races a put of the same key
+                    .evictionListener((DecisionKey key, Boolean permitted, RemovalCause cause) -> unindex(key));
+            this.cache = (recordStats ? builder.recordStats() : builder).build();
+        }
+
+        void put(DecisionKey key, boolean permitted) {
+            cache.asMap().compute(key, (ignored, previous) -> {
+                index(byUser, key.userKey(), key);
+                index(byResource, resourceKey(key.resourceType(), key.resourceKey()), key);
+                return permitted;
+            });
+        }
+
+        void remove(DecisionKey key) {
+            cache.asMap().compute(key, (ignored, previous) -> {
+                unindex(key);
+                return null;
+            });
+        }
+
+        void removeAll(Set<DecisionKey> keys) {
+            if (keys != null) {
+                keys.forEach(this::remove);
+            }
+        }
+
+        void clear() {
+            cache.invalidateAll();
+            byUser.clear();
+            byResource.clear();
+        }
+
+        private void unindex(DecisionKey key) {
+            unindex(byUser, key.userKey(), key);
+            unindex(byResource, resourceKey(key.resourceType(), key.resourceKey()), key);
+        }
+
+        private static void index(Map<String, Set<DecisionKey>> index, String indexKey, DecisionKey key) {
+            index.compute(indexKey, (ignored, keys) -> {
+                if (keys == null) {
+                    keys = ConcurrentHashMap.newKeySet();
+                }
+                keys.add(key);
+                return keys;
+            });
+        }
+
+        private static void unindex(Map<String, Set<DecisionKey>> index, String indexKey, DecisionKey key) {
+            index.computeIfPresent(indexKey, (ignored, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final IndexedCache decisions;
+    private final IndexedCache lastKnown;
+    private final AtomicLong generation = new AtomicLong();
+    // The generation each user and resource was last invalidated in, kept as long as a decision lives
+    private final Cache<String, Long> invalidations;
+    private volatile long clearedIn;
+
+    public DecisionCache(PermitProperties properties) {
+        var config = properties.getDecisionCache();
+        this.enabled = config.isEnabled();
+        this.ttl = config.getTtl();
+        this.decisions = new IndexedCache(config.getMaximumSize(), config.getTtl(), true);
+        var resilience = properties.getResilience();
+        this.lastKnown = resilience.getFallback() == PermitProperties.Resilience.Fallback.STALE_CACHE
+                ? new IndexedCache(resilience.getStaleMaximumSize(), resilience.getStaleTtl(), false)
+                : null;
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+    }
+
+    private static String userStamp(String userKey) {
+        return "user " + userKey;
+    }
+
+    private static String resourceStamp(String type, String key) {
+        return "resource " + resourceKey(type, key);
+    }
+
+    private static String resourceKey(String type, String key) {
+        return type + ":" + key;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How long a decision is kept, which bounds how stale it gets through changes made elsewhere.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public Boolean get(DecisionKey key) {
+        return enabled ? decisions.cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * The current generation. Read it before starting a check and pass it to
+     * {@link #put(DecisionKey, boolean, long)} with the decision.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a decision that is current as of now.
+     */
+    public void put(DecisionKey key, boolean permitted) {
+        put(key, permitted, generation.get());
+    }
+
+    /**
+     * Caches the decision of a check that started in generation {@code since}, unless its user or
+     * resource has been invalidated since.
+     */
+    public void put(DecisionKey key, boolean permitted, long since) {
+        if (invalidatedSince(key, since)) {
+            return;
+        }
+        if (enabled) {
+            decisions.put(key, permitted);
+        }
+        if (lastKnown != null) {
+            lastKnown.put(key, permitted);
+        }
+        // An invalidation may have run between the check above and the put
+        if (invalidatedSince(key, since)) {
+            decisions.remove(key);
+            if (lastKnown != null) {
+                lastKnown.remove(key);
+            }
+        }
+    }
+
+    private boolean invalidatedSince(DecisionKey key, long since) {
+        return invalidatedSince(key.userKey(), key.resourceType(), key.resourceKey(), since);
+    }
+
+    private boolean invalidatedSince(String userKey, String resourceType, String resourceKey, long since) {
+        Long user = invalidations.getIfPresent(userStamp(userKey));
+        Long resource = invalidations.getIfPresent(resourceStamp(resourceType, resourceKey));
+        return clearedIn > since || (user != null && user > since) || (resource != null && resource > since);
+    }
+
+    /**
+     * Whether a decision kept outside this cache, from a check that started in generation
+     * {@code since} and less than {@link #getTtl()} ago, still holds: neither the user nor the
+     * resource has been invalidated since.
+     */
+    public boolean isCurrent(String userKey, String resourceType, String resourceKey, long since) {
+        return !invalidatedSince(userKey, resourceType, resourceKey, since);
+    }
+
+    public Boolean getLastKnown(DecisionKey key) {
+        return lastKnown == null ? null : lastKnown.cache.getIfPresent(key);
+    }
+
+    public void invalidateUser(String userKey) {
+        // Recorded before the entries are dropped, so a concurrent put sees one or the other
+        invalidations.put(userStamp(userKey), generation.incrementAndGet());
+        decisions.removeAll(decisions.byUser.get(userKey));
+        if (lastKnown != null) {
+            lastKnown.removeAll(lastKnown.byUser.get(userKey));
+        }
+    }
+
+    public void invalidateResource(String type, String key) {
+        var resource = resourceKey(type, key);
+        invalidations.put(resourceStamp(type, key), generation.incrementAndGet());
+        decisions.removeAll(decisions.byResource.get(resource));
+        if (lastKnown != null) {
+            lastKnown.removeAll(lastKnown.byResource.get(resource));
+        }
+    }
+
+    public void invalidateResource(Resource resource) {
+        invalidateResource(resource.getType(), resource.getKey());
+    }
+
+    public void invalidateAll() {
+        clearedIn = generation.incrementAndGet();
+        decisions.clear();
+        if (lastKnown != null) {
+            lastKnown.clear();
+        }
+    }
+
+    public long size() {
+        return decisions.cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return decisions.cache.stats();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.permitjavaexample.authorization;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "decisioncache")
+public class DecisionCacheEndpoint {
+    private final DecisionCache decisionCache;
+    private final InFlightChecks inFlightChecks;
+
+    public DecisionCacheEndpoint(DecisionCache decisionCache, InFlightChecks inFlightChecks) {
+        this.decisionCache = decisionCache;
+        this.inFlightChecks = inFlightChecks;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        var stats = decisionCache.stats();
+        var result = new LinkedHashMap<String, Object>();
+        result.put("enabled", decisionCache.isEnabled());
+        result.put("size", decisionCache.size());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("inFlight", inFlightChecks.size());
+        result.put("collapsed", inFlightChecks.collapsedCount());
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        decisionCache.invalidateAll();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.permitjavaexample.authorization;
+
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identifies a single authorization decision. The user's and the resource's attributes are part
+ * of the key, so an ABAC-relevant change (e.g. a different author) never reuses a stale decision,
+ * and so is the tenant, since the same user may hold different roles in each tenant.
+ */
+public record DecisionKey(String userKey, String action, String tenant, String resourceType, String resourceKey,
+                          Map<String, Object> userAttributes, Map<String, Object> resourceAttributes) {
+
+    public static DecisionKey of(User user, String action, Resource resource) {
+        return new DecisionKey(
+                user.getKey(),
+                action,
+                resource.getTenant(),
+                resource.getType(),
+                resource.getKey(),
+                copy(user.getAttributes()),
+                copy(resource.getAttributes())
+        );
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> attributes) {
+        // Attribute values may be null, which Map.copyOf rejects
+        return attributes == null || attributes.isEmpty() ? Map.of() : Collections.unmodifiableMap(new HashMap<>(attributes));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical concurrent checks into one. The first caller for a {@link DecisionKey}
+ * runs the check; callers arriving while it is in flight park on its future instead of issuing
+ * their own PDP call. No lock is held while waiting.
+ */
+@Component
+public class InFlightChecks {
+    private final ConcurrentMap<DecisionKey, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Counter collapsed;
+
+    public InFlightChecks(PermitProperties properties, MeterRegistry registry) {
+        this.enabled = properties.getCoalescing().isEnabled();
+        this.collapsed = Counter.builder("permit.checks.collapsed")
+                .description("Checks answered by an identical check already in flight")
+                .register(registry);
+    }
+
+    public boolean decide(DecisionKey key, Supplier<Boolean> check) {
+        if (!enabled) {
+            return check.get();
+        }
+        var future = new CompletableFuture<Boolean>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            collapsed.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            boolean permitted = check.get();
+            future.complete(permitted);
+            return permitted;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Non-blocking {@link #decide}: callers arriving while the check is in flight get its future.
+     */
+    public CompletableFuture<Boolean> decideAsync(DecisionKey key, Supplier<CompletableFuture<Boolean>> check) {
+        if (!enabled) {
+            return check.get();
+        }
+        var future = new CompletableFuture<Boolean>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            collapsed.increment();
+            return existing;
+        }
+        try {
+            check.get().whenComplete((permitted, error) -> {
+                inFlight.remove(key, future);
+                if (error == null) {
+                    future.complete(permitted);
+                } else {
+                    future.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public long collapsedCount() {
+        return (long) collapsed.count();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.outbox.PermitMutation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Role assignments and relationship tuples this service knows about, because it wrote them
+ * or loaded them from the policy snapshot. Used by the {@link LocalPolicyEvaluator}.
+ */
+@Component
+public class LocalAuthorizationState {
+    public record Relation(String subject, String relation) {
+    }
+
+    private record TenantUser(String tenant, String userKey) {
+    }
+
+    private final Map<TenantUser, Set<String>> tenantRoles = new ConcurrentHashMap<>();
+    // resource (type:key) -> user key -> roles
+    private final Map<String, Map<String, Set<String>>> resourceRoles = new ConcurrentHashMap<>();
+    // object (type:key) -> relations pointing at it
+    private final Map<String, Set<Relation>> relationsByObject = new ConcurrentHashMap<>();
+
+    public void assignTenantRole(String tenant, String userKey, String role) {
+        tenantRoles.computeIfAbsent(new TenantUser(tenant, userKey), key -> ConcurrentHashMap.newKeySet()).add(role);
+    }
+
+    public void assignRole(String userKey, String role, String resource) {
+        resourceRoles.computeIfAbsent(resource, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(userKey, key -> ConcurrentHashMap.newKeySet())
+                .add(role);
+    }
+
+    public void addRelationship(String subject, String relation, String object) {
+        relationsByObject.computeIfAbsent(object, key -> ConcurrentHashMap.newKeySet()).add(new Relation(subject, relation));
+    }
+
+    public void removeResource(String resource) {
+        resourceRoles.remove(resource);
+        relationsByObject.remove(resource);
+        relationsByObject.values().forEach(relations -> relations.removeIf(relation -> relation.subject().equals(resource)));
+    }
+
+    public void apply(PermitMutation mutation) {
+        switch (mutation.type()) {
+            case CREATE_RESOURCE_INSTANCE -> {
+            }
+            case DELETE_RESOURCE_INSTANCE -> removeResource(mutation.resource());
+            case ASSIGN_RESOURCE_ROLE -> assignRole(mutation.userKey(), mutation.role(), mutation.resource());
+            case CREATE_RELATIONSHIP_TUPLE -> addRelationship(mutation.resource(), mutation.relation(), mutation.object());
+        }
+    }
+
+    /**
+     * The user's roles in {@code tenant}; a {@code null} tenant means the default tenant.
+     */
+    public Set<String> tenantRoles(String tenant, String userKey) {
+        return tenantRoles.getOrDefault(new TenantUser(tenant == null ? Blog.DEFAULT_TENANT : tenant, userKey), Set.of());
+    }
+
+    public Set<String> resourceRoles(String resource, String userKey) {
+        var users = resourceRoles.get(resource);
+        return users == null ? Set.of() : users.getOrDefault(userKey, Set.of());
+    }
+
+    public Set<Relation> relations(String object) {
+        return relationsByObject.getOrDefault(object, Set.of());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.permitjavaexample.authorization;
+
+/**
+ * A resource role the PDP will know about once a pending Permit API write is synced,
+ * e.g. {@code editor-1} is {@code author} of {@code blog:3}.
+ */
+public record LocalGrant(String userKey, String resource, String role) {
+}
@@ -0,0 +1,73 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes overlay for role assignments and relationship tuples that were accepted
+ * locally but not yet synced to Permit. It can only grant, never deny, and each grant is
+ * dropped shortly after its write has been acknowledged, giving the PDP time to catch up.
+ */
+@Component
+public class LocalGrantOverlay {
+    // Resource roles from main.tf, comment#moderator is derived from blog#author through "parent"
+    private static final Map<String, Map<String, Set<String>>> RESOURCE_ROLE_PERMISSIONS = Map.of(
+            "blog", Map.of("author", Set.of("update", "delete")),
+            "comment", Map.of("moderator", Set.of("delete"))
+    );
+
+    private final Map<LocalGrant, Long> grants = new ConcurrentHashMap<>();
+    private final long graceMillis;
+
+    public LocalGrantOverlay(PermitProperties properties) {
+        this.graceMillis = properties.getOutbox().getOverlayGrace().toMillis();
+    }
+
+    public void grant(LocalGrant grant) {
+        grants.put(grant, Long.MAX_VALUE);
+    }
+
+    public void release(LocalGrant grant) {
+        grants.computeIfPresent(grant, (key, expiresAt) -> System.currentTimeMillis() + graceMillis);
+    }
+
+    public void revoke(LocalGrant grant) {
+        grants.remove(grant);
+    }
+
+    public boolean permits(User user, String action, Resource resource) {
+        if (grants.isEmpty() || resource.getKey() == null) {
+            return false;
+        }
+        var roles = RESOURCE_ROLE_PERMISSIONS.get(resource.getType());
+        if (roles == null) {
+            return false;
+        }
+        var resourceId = resource.getType() + ":" + resource.getKey();
+        for (var role : roles.entrySet()) {
+            if (!role.getValue().contains(action)) {
+                continue;
+            }
+            var grant = new LocalGrant(user.getKey(), resourceId, role.getKey());
+            var expiresAt = grants.get(grant);
+            if (expiresAt == null) {
+                continue;
+            }
+            if (expiresAt > System.currentTimeMillis()) {
+                return true;
+            }
+            grants.remove(grant, expiresAt);
+        }
+        return false;
+    }
+
+    public int size() {
+        return grants.size();
+    }
+}
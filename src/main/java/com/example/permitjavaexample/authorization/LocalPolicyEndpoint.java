@@ -0,0 +1,31 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "localpolicy")
+public class LocalPolicyEndpoint {
+    private final LocalPolicyEvaluator localPolicy;
+    private final PermitProperties.LocalPolicy.Mode mode;
+
+    public LocalPolicyEndpoint(LocalPolicyEvaluator localPolicy, PermitProperties properties) {
+        this.localPolicy = localPolicy;
+        this.mode = properties.getLocalPolicy().getMode();
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        var result = new LinkedHashMap<String, Object>();
+        result.put("mode", mode);
+        result.put("agreements", localPolicy.agreements());
+        result.put("disagreements", localPolicy.disagreements());
+        result.put("recentDisagreements", localPolicy.recentDisagreements());
+        return result;
+    }
+}
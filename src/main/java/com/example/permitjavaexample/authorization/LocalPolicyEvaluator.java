@@ -0,0 +1,159 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates checks in-process against the {@link PolicySnapshot} and the
+ * {@link LocalAuthorizationState}, covering the RBAC, ABAC (resource sets) and ReBAC
+ * (role derivation) rules of main.tf.
+ */
+@Component
+public class LocalPolicyEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(LocalPolicyEvaluator.class);
+    private static final int RECENT_DISAGREEMENTS = 50;
+
+    public record Disagreement(String user, String action, String resource, boolean remote, boolean local) {
+    }
+
+    private final PolicySnapshot snapshot;
+    private final LocalAuthorizationState state;
+    private final AtomicLong agreements = new AtomicLong();
+    private final AtomicLong disagreements = new AtomicLong();
+    private final Deque<Disagreement> recentDisagreements = new ConcurrentLinkedDeque<>();
+
+    public LocalPolicyEvaluator(PermitProperties properties, LocalAuthorizationState state, ResourceLoader resourceLoader, ObjectMapper objectMapper) throws IOException {
+        this.state = state;
+        var location = properties.getLocalPolicy().getSnapshot();
+        try (var input = resourceLoader.getResource(location).getInputStream()) {
+            this.snapshot = objectMapper.readValue(input, PolicySnapshot.class);
+        }
+        for (var assignment : snapshot.roleAssignments()) {
+            if (assignment.resource() == null) {
+                state.assignTenantRole(Blog.DEFAULT_TENANT, assignment.user(), assignment.role());
+            } else {
+                state.assignRole(assignment.user(), assignment.role(), assignment.resource());
+            }
+        }
+        for (var tuple : snapshot.relationshipTuples()) {
+            state.addRelationship(tuple.subject(), tuple.relation(), tuple.object());
+        }
+    }
+
+    public boolean check(User user, String action, Resource resource) {
+        var type = resource.getType();
+        var permission = type + ":" + action;
+        var roles = state.tenantRoles(resource.getTenant(), user.getKey());
+        for (var role : roles) {
+            if (snapshot.roles().getOrDefault(role, List.of()).contains(permission)) {
+                return true;
+            }
+        }
+        for (var rule : snapshot.conditionSetRules()) {
+            if (rule.permission().equals(permission) && roles.contains(rule.role()) && matches(snapshot.resourceSets().get(rule.resourceSet()), user, resource)) {
+                return true;
+            }
+        }
+        if (resource.getKey() == null) {
+            return false;
+        }
+        var permissionsByRole = snapshot.resourceRoles().getOrDefault(type, Map.of());
+        var resourceId = type + ":" + resource.getKey();
+        for (var role : state.resourceRoles(resourceId, user.getKey())) {
+            if (permissionsByRole.getOrDefault(role, List.of()).contains(action)) {
+                return true;
+            }
+        }
+        for (var derivation : snapshot.roleDerivations()) {
+            if (!derivation.resource().equals(type) || !permissionsByRole.getOrDefault(derivation.toRole(), List.of()).contains(action)) {
+                continue;
+            }
+            for (var relation : state.relations(resourceId)) {
+                if (relation.relation().equals(derivation.linkedBy())
+                        && relation.subject().startsWith(derivation.onResource() + ":")
+                        && state.resourceRoles(relation.subject(), user.getKey()).contains(derivation.role())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares a remote PDP decision with the local one, logging any disagreement.
+     */
+    public void shadow(User user, String action, Resource resource, boolean remote) {
+        boolean local = check(user, action, resource);
+        if (local == remote) {
+            agreements.incrementAndGet();
+            return;
+        }
+        disagreements.incrementAndGet();
+        var resourceId = resource.getKey() == null ? resource.getType() : resource.getType() + ":" + resource.getKey();
+        var disagreement = new Disagreement(user.getKey(), action, resourceId, remote, local);
+        logger.warn("Local policy disagrees with PDP: {}", disagreement);
+        recentDisagreements.addFirst(disagreement);
+        while (recentDisagreements.size() > RECENT_DISAGREEMENTS) {
+            recentDisagreements.pollLast();
+        }
+    }
+
+    public long agreements() {
+        return agreements.get();
+    }
+
+    public long disagreements() {
+        return disagreements.get();
+    }
+
+    public List<Disagreement> recentDisagreements() {
+        return List.copyOf(recentDisagreements);
+    }
+
+    private static boolean matches(PolicySnapshot.ResourceSet resourceSet, User user, Resource resource) {
+        if (resourceSet == null || !resourceSet.resource().equals(resource.getType())) {
+            return false;
+        }
+        for (var condition : resourceSet.conditions()) {
+            if (!Objects.equals(stringValue(resolve(condition.attribute(), user, resource)), stringValue(resolve(condition.equalsRef(), user, resource)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object resolve(String reference, User user, Resource resource) {
+        if (reference.equals("user.key")) {
+            return user.getKey();
+        }
+        if (reference.startsWith("user.")) {
+            return user.getAttributes() == null ? null : user.getAttributes().get(reference.substring("user.".length()));
+        }
+        if (reference.equals("resource.key")) {
+            return resource.getKey();
+        }
+        if (reference.startsWith("resource.")) {
+            return resource.getAttributes() == null ? null : resource.getAttributes().get(reference.substring("resource.".length()));
+        }
+        return reference;
+    }
+
+    private static String stringValue(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
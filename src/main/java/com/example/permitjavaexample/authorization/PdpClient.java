@@ -0,0 +1,253 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Talks to the PDP over the shared {@code pdpHttpClient}: single checks on {@code /allowed} and
+ * bulk checks on {@code /allowed/bulk}, which the SDK does not expose. At most
+ * {@code permit.http.maxConnections} requests are in flight at once, so a slow PDP queues callers
+ * here instead of opening new connections.
+ * <p>
+ * Checks on a resource whose tenant belongs to a {@code permit.tenancy.shards} entry go to that
+ * shard's PDP, all others to {@code permit.pdpUrl}.
+ */
+@Component
+public class PdpClient {
+    private static final String DEFAULT_TENANT = "default";
+
+    private record Endpoints(URI check, URI bulk, URI health) {
+        static Endpoints of(String pdpUrl) {
+            var base = pdpUrl.replaceAll("/+$", "");
+            return new Endpoints(URI.create(base + "/allowed"), URI.create(base + "/allowed/bulk"), URI.create(base + "/healthy"));
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Endpoints defaultEndpoints;
+    private final Map<String, Endpoints> endpointsByTenant = new HashMap<>();
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final Duration acquireTimeout;
+    private final Semaphore connections;
+    private final Timer acquireTimer;
+
+    public PdpClient(PermitProperties properties, ObjectMapper objectMapper, @Qualifier("pdpHttpClient") HttpClient httpClient,
+                     MeterRegistry registry) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.defaultEndpoints = Endpoints.of(properties.getPdpUrl());
+        for (var shard : properties.getTenancy().getShards().values()) {
+            var endpoints = Endpoints.of(shard.getPdpUrl());
+            shard.getTenants().forEach(tenant -> endpointsByTenant.put(tenant, endpoints));
+        }
+        this.apiKey = properties.getApiKey();
+        var http = properties.getHttp();
+        this.requestTimeout = http.getRequestTimeout();
+        this.acquireTimeout = http.getAcquireTimeout();
+        this.connections = new Semaphore(http.getMaxConnections());
+        int maxConnections = http.getMaxConnections();
+        Gauge.builder("permit.pdp.connections.active", connections, c -> maxConnections - c.availablePermits())
+                .description("PDP requests currently in flight")
+                .register(registry);
+        Gauge.builder("permit.pdp.connections.max", () -> maxConnections)
+                .description("Maximum concurrent PDP requests")
+                .register(registry);
+        Gauge.builder("permit.pdp.connections.pending", connections, Semaphore::getQueueLength)
+                .description("Callers waiting for a PDP connection")
+                .register(registry);
+        this.acquireTimer = Timer.builder("permit.pdp.connections.acquire")
+                .description("Time spent waiting for a PDP connection")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Opens up to {@code connections} connections to each PDP by sending that many concurrent
+     * health probes, so the first real checks find them already established. Returns how many
+     * probes got a response.
+     */
+    public int warmUp(int connections) {
+        var pdps = new LinkedHashSet<Endpoints>();
+        pdps.add(defaultEndpoints);
+        pdps.addAll(endpointsByTenant.values());
+        var probes = new ArrayList<CompletableFuture<HttpResponse<Void>>>(connections * pdps.size());
+        for (var pdp : pdps) {
+            var request = HttpRequest.newBuilder(pdp.health()).timeout(requestTimeout).GET().build();
+            for (int i = 0; i < connections; i++) {
+                probes.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+        }
+        int answered = 0;
+        for (var probe : probes) {
+            try {
+                probe.join();
+                answered++;
+            } catch (CompletionException e) {
+                // Counted as unanswered; the caller decides whether that matters
+            }
+        }
+        return answered;
+    }
+
+    /**
+     * Whether checks on {@code resource} go to {@code permit.pdpUrl}, the PDP the SDK client uses.
+     */
+    public boolean usesDefaultPdp(Resource resource) {
+        return endpoints(resource) == defaultEndpoints;
+    }
+
+    private Endpoints endpoints(Resource resource) {
+        var tenant = resource.getTenant();
+        return tenant == null ? defaultEndpoints : endpointsByTenant.getOrDefault(tenant, defaultEndpoints);
+    }
+
+    public boolean check(User user, String action, Resource resource) throws IOException, InterruptedException {
+        return readDecision(post(endpoints(resource).check(), objectMapper.writeValueAsBytes(checkQuery(user, action, resource)), "check"));
+    }
+
+    /**
+     * Same as {@link #check}, without blocking the caller. Fails straight away with a
+     * {@link PdpGuard#NO_CONNECTION} rejection instead of waiting when every PDP connection is in
+     * use, so callers apply backpressure themselves.
+     */
+    public CompletableFuture<Boolean> checkAsync(User user, String action, Resource resource) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(checkQuery(user, action, resource));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!connections.tryAcquire()) {
+            return CompletableFuture.failedFuture(new PdpUnavailableException(PdpGuard.NO_CONNECTION, null));
+        }
+        acquireTimer.record(0, TimeUnit.NANOSECONDS);
+        return httpClient.sendAsync(request(endpoints(resource).check(), body), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> connections.release())
+                .thenApply(response -> {
+                    try {
+                        return readDecision(responseBody(response, "check"));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private ObjectNode checkQuery(User user, String action, Resource resource) {
+        ObjectNode query = objectMapper.createObjectNode();
+        query.set("user", toJson(user));
+        query.put("action", action);
+        query.set("resource", toJson(resource));
+        query.putObject("context");
+        return query;
+    }
+
+    private boolean readDecision(byte[] response) throws IOException {
+        JsonNode decision = objectMapper.readTree(response);
+        return decision.path("allow").asBoolean(false);
+    }
+
+    /**
+     * Decides all {@code requests} in one query, sent to the PDP of the first request's tenant.
+     * Callers batch requests per tenant.
+     */
+    public boolean[] bulkCheck(User user, List<AuthorizationRequest> requests) throws IOException, InterruptedException {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (var request : requests) {
+            ObjectNode query = body.addObject();
+            query.set("user", toJson(user));
+            query.put("action", request.action());
+            query.set("resource", toJson(request.resource()));
+            query.putObject("context");
+        }
+        var uri = endpoints(requests.get(0).resource()).bulk();
+        JsonNode decisions = objectMapper.readTree(post(uri, objectMapper.writeValueAsBytes(body), "bulk check")).path("allow");
+        if (!decisions.isArray() || decisions.size() != requests.size()) {
+            throw new IOException("PDP bulk check returned " + decisions.size() + " decisions for " + requests.size() + " queries");
+        }
+        var result = new boolean[requests.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = decisions.get(i).path("allow").asBoolean(false);
+        }
+        return result;
+    }
+
+    private byte[] post(URI uri, byte[] body, String operation) throws IOException, InterruptedException {
+        var httpRequest = request(uri, body);
+        long waitStart = System.nanoTime();
+        if (!connections.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new PdpUnavailableException(PdpGuard.NO_CONNECTION, null);
+        }
+        acquireTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        try {
+            return responseBody(httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray()), operation);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private HttpRequest request(URI uri, byte[] body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static byte[] responseBody(HttpResponse<byte[]> response, String operation) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("PDP " + operation + " failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private ObjectNode toJson(User user) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("key", user.getKey());
+        node.set("attributes", toJson(user.getAttributes()));
+        return node;
+    }
+
+    private ObjectNode toJson(Resource resource) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("type", resource.getType());
+        if (resource.getKey() != null) {
+            node.put("key", resource.getKey());
+        }
+        node.put("tenant", resource.getTenant() != null ? resource.getTenant() : DEFAULT_TENANT);
+        node.set("attributes", toJson(resource.getAttributes()));
+        return node;
+    }
+
+    private JsonNode toJson(Map<String, Object> attributes) {
+        return attributes == null ? objectMapper.createObjectNode() : objectMapper.valueToTree(attributes);
+    }
+}
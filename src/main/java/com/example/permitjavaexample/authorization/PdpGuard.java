@@ -0,0 +1,174 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.metrics.PermitMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead around PDP calls. Calls slower than the latency budget count as
+ * slow; too many slow or failed calls open the breaker, and at most {@code maxConcurrentCalls}
+ * threads can wait on the PDP at once. Calls turned away locally, such as when no PDP connection
+ * is free, say nothing about the PDP's health and are not counted by the breaker. Callers turn a
+ * {@link PdpUnavailableException} into a {@link #fallback} decision instead of failing the
+ * request.
+ */
+@Component
+public class PdpGuard {
+    private static final Logger logger = LoggerFactory.getLogger(PdpGuard.class);
+    private static final String NAME = "pdp";
+    public static final String CIRCUIT_OPEN = "circuit_open";
+    public static final String BULKHEAD_FULL = "bulkhead_full";
+    public static final String NO_CONNECTION = "no_connection";
+    public static final String ERROR = "error";
+
+    private final boolean enabled;
+    private final PermitProperties.Resilience.Fallback fallback;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Bulkhead asyncBulkhead;
+    private final DecisionCache decisionCache;
+    private final PermitMetrics metrics;
+    private final MeterRegistry registry;
+
+    public PdpGuard(PermitProperties properties, DecisionCache decisionCache, PermitMetrics metrics, MeterRegistry registry) {
+        var config = properties.getResilience();
+        this.enabled = config.isEnabled();
+        this.fallback = config.getFallback();
+        this.decisionCache = decisionCache;
+        this.metrics = metrics;
+        this.registry = registry;
+        var circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slowCallDurationThreshold(config.getLatencyBudget())
+                .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                .waitDurationInOpenState(config.getOpenStateWait())
+                .permittedNumberOfCallsInHalfOpenState(config.getHalfOpenCalls())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreExceptions(PdpUnavailableException.class)
+                .build());
+        var bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getMaxConcurrentCalls())
+                .maxWaitDuration(config.getMaxWait())
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        // Non-blocking callers must not wait for a permit, they are rejected instead
+        this.asyncBulkhead = bulkheads.bulkhead(NAME + "-async", BulkheadConfig.from(bulkhead.getBulkheadConfig())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("PDP circuit breaker {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+    }
+
+    /**
+     * Runs a PDP call through the breaker and bulkhead.
+     *
+     * @throws PdpUnavailableException if the call was rejected or failed
+     */
+    public <T> T call(Callable<T> call) {
+        try {
+            if (!enabled) {
+                return call.call();
+            }
+            return circuitBreaker.executeCallable(Bulkhead.decorateCallable(bulkhead, call));
+        } catch (PdpUnavailableException e) {
+            throw e;
+        } catch (CallNotPermittedException e) {
+            throw new PdpUnavailableException(CIRCUIT_OPEN, e);
+        } catch (BulkheadFullException e) {
+            throw new PdpUnavailableException(BULKHEAD_FULL, e);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new PdpUnavailableException(ERROR, e);
+        }
+    }
+
+    /**
+     * Runs a non-blocking PDP call through the breaker and bulkhead. The returned future fails
+     * with a {@link PdpUnavailableException} if the call was rejected or failed.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletionStage<T>> call) {
+        CompletionStage<T> stage;
+        try {
+            stage = enabled
+                    ? circuitBreaker.executeCompletionStage(Bulkhead.decorateCompletionStage(asyncBulkhead, call))
+                    : call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(unavailable(e));
+        }
+        var result = new CompletableFuture<T>();
+        stage.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(unavailable(error));
+            }
+        });
+        return result;
+    }
+
+    private static PdpUnavailableException unavailable(Throwable error) {
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PdpUnavailableException unavailable) {
+            return unavailable;
+        }
+        if (cause instanceof CallNotPermittedException) {
+            return new PdpUnavailableException(CIRCUIT_OPEN, cause);
+        }
+        if (cause instanceof BulkheadFullException) {
+            return new PdpUnavailableException(BULKHEAD_FULL, cause);
+        }
+        return new PdpUnavailableException(ERROR, cause);
+    }
+
+    /**
+     * The decision to use when the PDP could not answer {@code key}.
+     */
+    public boolean fallback(DecisionKey key, PdpUnavailableException cause) {
+        boolean permitted = switch (fallback) {
+            case STALE_CACHE -> Boolean.TRUE.equals(decisionCache.getLastKnown(key));
+            case DENY_ALL -> false;
+            case ALLOW_READ_ONLY -> "read".equals(key.action());
+        };
+        Counter.builder("permit.fallbacks")
+                .description("Decisions made by the fallback policy because the PDP was unavailable")
+                .tag("reason", cause.getReason())
+                .tag("policy", fallback.name().toLowerCase())
+                .tag("outcome", PermitMetrics.outcome(permitted))
+                .register(registry)
+                .increment();
+        metrics.recordDecision("fallback", key.action(), key.resourceType(), permitted);
+        return permitted;
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+}
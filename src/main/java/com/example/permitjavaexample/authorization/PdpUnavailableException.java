@@ -0,0 +1,17 @@
+package com.example.permitjavaexample.authorization;
+
+/**
+ * The PDP could not answer: the call failed, the circuit breaker is open or the bulkhead is full.
+ */
+public class PdpUnavailableException extends RuntimeException {
+    private final String reason;
+
+    public PdpUnavailableException(String reason, Throwable cause) {
+        super("PDP unavailable: " + reason, cause);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.permitjavaexample.authorization;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of the authorization model declared in main.tf, plus optional role assignments
+ * and relationship tuples to bootstrap the local state with.
+ */
+public record PolicySnapshot(
+        Map<String, List<String>> roles,
+        Map<String, Map<String, List<String>>> resourceRoles,
+        Map<String, ResourceSet> resourceSets,
+        List<ConditionSetRule> conditionSetRules,
+        List<RoleDerivation> roleDerivations,
+        List<RoleAssignment> roleAssignments,
+        List<RelationshipTuple> relationshipTuples
+) {
+    public PolicySnapshot {
+        roles = roles == null ? Map.of() : roles;
+        resourceRoles = resourceRoles == null ? Map.of() : resourceRoles;
+        resourceSets = resourceSets == null ? Map.of() : resourceSets;
+        conditionSetRules = conditionSetRules == null ? List.of() : conditionSetRules;
+        roleDerivations = roleDerivations == null ? List.of() : roleDerivations;
+        roleAssignments = roleAssignments == null ? List.of() : roleAssignments;
+        relationshipTuples = relationshipTuples == null ? List.of() : relationshipTuples;
+    }
+
+    /**
+     * Resources of one type matching all conditions, e.g. {@code resource.author} equals {@code user.key}.
+     */
+    public record ResourceSet(String resource, List<Condition> conditions) {
+    }
+
+    public record Condition(String attribute, String equalsRef) {
+    }
+
+    public record ConditionSetRule(String role, String resourceSet, String permission) {
+    }
+
+    /**
+     * Holders of {@code role} on an {@code onResource} instance get {@code toRole} on every
+     * {@code resource} instance it is linked to by the {@code linkedBy} relation.
+     */
+    public record RoleDerivation(String role, String onResource, String resource, String toRole, String linkedBy) {
+    }
+
+    /**
+     * A tenant role when {@code resource} is null, otherwise a role on a resource instance ({@code type:key}).
+     */
+    public record RoleAssignment(String user, String role, String resource) {
+    }
+
+    public record RelationshipTuple(String subject, String relation, String object) {
+    }
+}
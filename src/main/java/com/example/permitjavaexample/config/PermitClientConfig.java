@@ -6,6 +6,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class PermitClientConfig {
 
@@ -16,11 +20,40 @@ public class PermitClientConfig {
     private String pdpUrl;
 
     @Bean
-    public Permit permit() {
+    public Permit permit(PermitProperties properties) {
         return new Permit(
                 new PermitConfig.Builder(apiKey)
                         .withPdpAddress(pdpUrl)
+                        .withApiUrl(properties.getApiUrl())
                         .build()
         );
     }
+
+    /**
+     * Shared HTTP client for PDP checks. Connections are kept alive and reused across requests, and
+     * HTTP/2 is negotiated when the PDP supports it so concurrent checks share one connection.
+     * The JDK reads its pool size and keep-alive once per JVM, from the
+     * {@code jdk.httpclient.connectionPoolSize} and {@code jdk.httpclient.keepalive.timeout}
+     * system properties, so those are set as startup flags rather than here.
+     */
+    @Bean
+    public HttpClient pdpHttpClient(PermitProperties properties) {
+        var http = properties.getHttp();
+        return HttpClient.newBuilder()
+                .version(http.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(http.getConnectTimeout())
+                .build();
+    }
+
+    /**
+     * Runs fanned-out Permit calls. With {@code spring.threads.virtual.enabled} each blocking call
+     * gets its own virtual thread instead of queueing for one of a few platform threads.
+     */
+    @Bean
+    public ExecutorService permitExecutor(PermitProperties properties, @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(properties.getBulk().getParallelism());
+    }
 }
@@ -3,11 +3,29 @@ package com.example.permitjavaexample.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "permit")
 public class PermitProperties {
     private String apiKey;
     private String pdpUrl;
+    private String apiUrl = "https://api.permit.io";
+    private final DecisionCache decisionCache = new DecisionCache();
+    private final UserCache userCache = new UserCache();
+    private final Bulk bulk = new Bulk();
+    private final Coalescing coalescing = new Coalescing();
+    private final Outbox outbox = new Outbox();
+    private final LocalPolicy localPolicy = new LocalPolicy();
+    private final Http http = new Http();
+    private final WarmUp warmUp = new WarmUp();
+    private final Resilience resilience = new Resilience();
+    private final BulkImport bulkImport = new BulkImport();
+    private final Tenancy tenancy = new Tenancy();
 
     public String getApiKey() {
         return apiKey;
@@ -24,4 +42,642 @@ public class PermitProperties {
     public void setPdpUrl(String pdpUrl) {
         this.pdpUrl = pdpUrl;
     }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public void setApiUrl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+
+    public DecisionCache getDecisionCache() {
+        return decisionCache;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public LocalPolicy getLocalPolicy() {
+        return localPolicy;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Tenancy getTenancy() {
+        return tenancy;
+    }
+
+    public static class DecisionCache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class UserCache {
+        private boolean enabled = true;
+        private boolean enrich = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration retryAfter = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isEnrich() {
+            return enrich;
+        }
+
+        public void setEnrich(boolean enrich) {
+            this.enrich = enrich;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class Bulk {
+        private boolean enabled = true;
+        private int parallelism = 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Coalescing {
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Outbox {
+        private boolean enabled = true;
+        private String journal = "data/permit-outbox.journal";
+        private boolean fsync = true;
+        private int batchSize = 100;
+        private int maxAttempts = 10;
+        private Duration retryBackoff = Duration.ofMillis(500);
+        private Duration pollInterval = Duration.ofMillis(200);
+        private Duration overlayGrace = Duration.ofSeconds(10);
+        private long compactionThreshold = 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getJournal() {
+            return journal;
+        }
+
+        public void setJournal(String journal) {
+            this.journal = journal;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getOverlayGrace() {
+            return overlayGrace;
+        }
+
+        public void setOverlayGrace(Duration overlayGrace) {
+            this.overlayGrace = overlayGrace;
+        }
+
+        public long getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(long compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+    }
+
+    public static class LocalPolicy {
+        public enum Mode {
+            /** Every check goes to the PDP. */
+            REMOTE,
+            /** Checks are answered by the embedded evaluator only. */
+            LOCAL,
+            /** The PDP decides, the embedded evaluator runs alongside and disagreements are reported. */
+            SHADOW
+        }
+
+        private Mode mode = Mode.REMOTE;
+        private String snapshot = "classpath:policy/blog-policy.json";
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public String getSnapshot() {
+            return snapshot;
+        }
+
+        public void setSnapshot(String snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    public static class Http {
+        public enum Transport {
+            /** PDP checks go through the Permit SDK and its default HTTP client. */
+            SDK,
+            /** PDP checks go through the shared, bounded and tuned {@code pdpHttpClient}. */
+            POOLED
+        }
+
+        private Transport transport = Transport.POOLED;
+        private boolean http2 = true;
+        private int maxConnections = 64;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration requestTimeout = Duration.ofSeconds(2);
+        private Duration acquireTimeout = Duration.ofMillis(500);
+
+        public Transport getTransport() {
+            return transport;
+        }
+
+        public void setTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+    }
+
+    public static class WarmUp {
+        private boolean enabled = true;
+        private int connections = 8;
+        private int iterations = 200;
+        private Duration timeout = Duration.ofSeconds(30);
+        private List<String> users = new ArrayList<>();
+        private List<String> actions = new ArrayList<>(List.of("read", "create", "update", "delete"));
+        private List<String> resourceTypes = new ArrayList<>(List.of("blog", "comment"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public List<String> getUsers() {
+            return users;
+        }
+
+        public void setUsers(List<String> users) {
+            this.users = users;
+        }
+
+        public List<String> getActions() {
+            return actions;
+        }
+
+        public void setActions(List<String> actions) {
+            this.actions = actions;
+        }
+
+        public List<String> getResourceTypes() {
+            return resourceTypes;
+        }
+
+        public void setResourceTypes(List<String> resourceTypes) {
+            this.resourceTypes = resourceTypes;
+        }
+    }
+
+    public static class Resilience {
+        public enum Fallback {
+            /** The last decision the PDP gave for the same check, denying if there is none. */
+            STALE_CACHE,
+            /** Every check is denied. */
+            DENY_ALL,
+            /** Reads are allowed, everything else is denied. */
+            ALLOW_READ_ONLY
+        }
+
+        private boolean enabled = true;
+        private Duration latencyBudget = Duration.ofMillis(250);
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 50;
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration openStateWait = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+        private int maxConcurrentCalls = 64;
+        private Duration maxWait = Duration.ofMillis(50);
+        private Fallback fallback = Fallback.STALE_CACHE;
+        private long staleMaximumSize = 100_000;
+        private Duration staleTtl = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getLatencyBudget() {
+            return latencyBudget;
+        }
+
+        public void setLatencyBudget(Duration latencyBudget) {
+            this.latencyBudget = latencyBudget;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getOpenStateWait() {
+            return openStateWait;
+        }
+
+        public void setOpenStateWait(Duration openStateWait) {
+            this.openStateWait = openStateWait;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Fallback getFallback() {
+            return fallback;
+        }
+
+        public void setFallback(Fallback fallback) {
+            this.fallback = fallback;
+        }
+
+        public long getStaleMaximumSize() {
+            return staleMaximumSize;
+        }
+
+        public void setStaleMaximumSize(long staleMaximumSize) {
+            this.staleMaximumSize = staleMaximumSize;
+        }
+
+        public Duration getStaleTtl() {
+            return staleTtl;
+        }
+
+        public void setStaleTtl(Duration staleTtl) {
+            this.staleTtl = staleTtl;
+        }
+    }
+
+    public static class BulkImport {
+        private int chunkSize = 500;
+        private int apiBatchSize = 100;
+        private int parallelism = 4;
+        private int recentJobs = 20;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getApiBatchSize() {
+            return apiBatchSize;
+        }
+
+        public void setApiBatchSize(int apiBatchSize) {
+            this.apiBatchSize = apiBatchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getRecentJobs() {
+            return recentJobs;
+        }
+
+        public void setRecentJobs(int recentJobs) {
+            this.recentJobs = recentJobs;
+        }
+    }
+
+    public static class Tenancy {
+        private boolean enabled = false;
+        private String header = "X-Tenant";
+        private List<String> tenants = new ArrayList<>();
+        private Map<String, Shard> shards = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public void setHeader(String header) {
+            this.header = header;
+        }
+
+        public List<String> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(List<String> tenants) {
+            this.tenants = tenants;
+        }
+
+        public Map<String, Shard> getShards() {
+            return shards;
+        }
+
+        public void setShards(Map<String, Shard> shards) {
+            this.shards = shards;
+        }
+
+        /**
+         * A group of tenants checked against their own PDP.
+         */
+        public static class Shard {
+            private String pdpUrl;
+            private List<String> tenants = new ArrayList<>();
+
+            public String getPdpUrl() {
+                return pdpUrl;
+            }
+
+            public void setPdpUrl(String pdpUrl) {
+                this.pdpUrl = pdpUrl;
+            }
+
+            public List<String> getTenants() {
+                return tenants;
+            }
+
+            public void setTenants(List<String> tenants) {
+                this.tenants = tenants;
+            }
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.permitjavaexample.config;
+
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.DurableBlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+public class StoreConfig {
+
+    /**
+     * Blogs and comments are always served from memory. With {@code store.durable} every change is
+     * also written to an append-only log under {@code store.directory} and replayed on startup.
+     */
+    @Bean
+    public BlogRepository blogRepository(StoreProperties properties) throws IOException {
+        if (properties.isDurable()) {
+            return new DurableBlogRepository(properties);
+        }
+        return new InMemoryBlogRepository();
+    }
+}
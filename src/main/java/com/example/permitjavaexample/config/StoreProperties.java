@@ -0,0 +1,74 @@
+package com.example.permitjavaexample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "store")
+public class StoreProperties {
+    private boolean durable = false;
+    private String directory = "data/store";
+    private long segmentSize = 64L * 1024 * 1024;
+    private boolean fsync = true;
+    private int maxBatch = 512;
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+    private long jsonCacheBytes = 64L * 1024 * 1024;
+
+    public boolean isDurable() {
+        return durable;
+    }
+
+    public void setDurable(boolean durable) {
+        this.durable = durable;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public long getJsonCacheBytes() {
+        return jsonCacheBytes;
+    }
+
+    public void setJsonCacheBytes(long jsonCacheBytes) {
+        this.jsonCacheBytes = jsonCacheBytes;
+    }
+}
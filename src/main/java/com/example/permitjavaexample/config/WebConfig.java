@@ -1,19 +1,40 @@
 package com.example.permitjavaexample.config;
 
+import com.example.permitjavaexample.interceptor.AuthorizationMetricsInterceptor;
 import com.example.permitjavaexample.interceptor.UserInterceptor;
+import com.example.permitjavaexample.json.BlogJsonHttpMessageConverter;
+import com.example.permitjavaexample.json.BlogJsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebConfig implements WebMvcConfigurer {
 
     @Autowired
     private UserInterceptor userInterceptor;
 
+    @Autowired
+    private AuthorizationMetricsInterceptor authorizationMetricsInterceptor;
+
+    @Autowired
+    private BlogJsonWriter blogJsonWriter;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(authorizationMetricsInterceptor);
         registry.addInterceptor(userInterceptor);
     }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of Jackson, which would otherwise serialize blogs and comments again on every response
+        converters.add(0, new BlogJsonHttpMessageConverter(blogJsonWriter));
+    }
 }
@@ -1,74 +1,233 @@
 package com.example.permitjavaexample.controller;
 
+import com.example.permitjavaexample.config.FeedProperties;
+import com.example.permitjavaexample.feed.Subscription;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
 import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.BlogPage;
+import com.example.permitjavaexample.model.BlogView;
+import com.example.permitjavaexample.model.ChangeEvent;
 import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.model.SearchResult;
 import com.example.permitjavaexample.service.BlogService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.permit.sdk.enforcement.User;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/blogs")
 public class BlogController {
+    private static final int STREAM_PAGE_SIZE = 100;
+
     private final BlogService blogService;
+    private final BlogResponses responses;
+    private final ObjectWriter lineWriter;
+    private final AuthorizationTimeTracker authorizationTime;
+    private final long feedTimeout;
 
     @Autowired
-    public BlogController(BlogService blogService) {
+    public BlogController(BlogService blogService, BlogResponses responses, ObjectMapper objectMapper, FeedProperties feedProperties,
+                          AuthorizationTimeTracker authorizationTime) {
         this.blogService = blogService;
+        this.responses = responses;
+        this.lineWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.authorizationTime = authorizationTime;
+        // The feed ends subscriptions itself; this only catches one it failed to end
+        this.feedTimeout = feedProperties.getTimeout().plus(feedProperties.getHeartbeat()).toMillis();
     }
 
+    /**
+     * Lists blogs one page at a time. Pass the returned {@code nextCursor} back as {@code cursor}
+     * for the next page; {@code comments} omits ({@code 0}) or truncates embedded comments. A
+     * page that has not changed since {@code If-None-Match} is answered with a 304.
+     */
     @GetMapping
-    public List<Blog> getAllBlogs(HttpServletRequest request) {
+    public ResponseEntity<BlogPage> getAllBlogs(HttpServletRequest request,
+                                                @RequestParam(value = "author", required = false) String author,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                @RequestParam(value = "comments", required = false) Integer comments,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        long storeVersion = blogService.storeVersion(tenant);
+        var page = blogService.getBlogPage(currentUser, tenant, author, cursor, limit, comments);
+        var etag = responses.etag(tenant, storeVersion, author, comments, page);
+        return BlogResponses.matches(ifNoneMatch, etag) ? responses.notModified(etag) : responses.ok(etag).body(page);
+    }
+
+    /**
+     * Streams every readable blog after {@code cursor} as newline-delimited JSON, writing each
+     * page as soon as it is authorized.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBlogs(HttpServletRequest request,
+                                                             @RequestParam(value = "author", required = false) String author,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "comments", required = false) Integer comments) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        // The first page is fetched up front so authorization failures still map to an error status
+        var first = blogService.getBlogPage(currentUser, tenant, author, cursor, STREAM_PAGE_SIZE, comments);
+        // The body is written on an async thread; its checks still count toward this request
+        var timing = authorizationTime.current();
+        StreamingResponseBody body = out -> {
+            var previous = authorizationTime.bind(timing);
+            try {
+                var page = first;
+                while (true) {
+                    for (var blog : page.blogs()) {
+                        lineWriter.writeValue(out, blog);
+                        out.write('\n');
+                    }
+                    out.flush();
+                    if (page.nextCursor() == null) {
+                        return;
+                    }
+                    page = blogService.getBlogPage(currentUser, tenant, author, page.nextCursor(), STREAM_PAGE_SIZE, comments);
+                }
+            } finally {
+                authorizationTime.restore(previous);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Blogs and comments matching the words in {@code q}, best first. A word ending in {@code *}
+     * matches as a prefix.
+     */
+    @GetMapping("/search")
+    public List<SearchResult> search(HttpServletRequest request,
+                                     @RequestParam("q") String query,
+                                     @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.search(currentUser, tenant, query, limit);
+    }
+
+    /**
+     * Blog and comment changes the user may read, as server-sent events. Reconnecting with
+     * {@code Last-Event-ID} resumes after that event; a {@code reset} event means the changes in
+     * between are gone and the client should reload. The response is written from a virtual thread
+     * per subscription, so a slow client blocks only the thread sending to it.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(HttpServletRequest request, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.getAllBlogs(currentUser);
+        String tenant = (String) request.getAttribute("tenant");
+        var emitter = new SseEmitter(feedTimeout);
+        var subscription = blogService.subscribe(currentUser, tenant, lastEventId, new Subscription.Listener() {
+            @Override
+            public void event(String id, ChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event().id(id).data(event, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void reset(String id) throws IOException {
+                // EventSource drops events without data
+                emitter.send(SseEmitter.event().id(id).name("reset").data(Map.of(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        subscription.request(Long.MAX_VALUE);
+        return emitter;
     }
 
+    /**
+     * The blog with the comments the user may read. A blog the user sees unchanged since
+     * {@code If-None-Match} is answered with a 304 once the read is authorized.
+     */
     @GetMapping("/{id}")
-    public Blog getBlogById(HttpServletRequest request, @PathVariable("id") int id) {
+    public ResponseEntity<BlogView> getBlogById(HttpServletRequest request, @PathVariable("id") int id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.getBlog(currentUser, id);
+        String tenant = (String) request.getAttribute("tenant");
+        var blog = blogService.getBlog(currentUser, tenant, id);
+        var etag = responses.etag(tenant, blog);
+        if (BlogResponses.matches(ifNoneMatch, etag)) {
+            return responses.notModified(etag);
+        }
+        return responses.ok(etag).body(blog);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Blog addBlog(HttpServletRequest request, @RequestBody String content) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.addBlog(currentUser, content);
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.addBlog(currentUser, tenant, content);
     }
 
     @PutMapping("/{id}")
     public Blog updateBlog(HttpServletRequest request, @PathVariable("id") int id, @RequestBody String content) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.updateBlog(currentUser, id, content);
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.updateBlog(currentUser, tenant, id, content);
     }
 
     @DeleteMapping("/{id}")
     public String deleteBlog(HttpServletRequest request, @PathVariable("id") int id) {
         User currentUser = (User) request.getAttribute("user");
-        blogService.deleteBlog(currentUser, id);
+        String tenant = (String) request.getAttribute("tenant");
+        blogService.deleteBlog(currentUser, tenant, id);
         return "Deleted blog with id " + id;
     }
 
+    @GetMapping("/{id}/comment")
+    public List<Comment> getComments(HttpServletRequest request, @PathVariable("id") int id) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.getComments(currentUser, tenant, id);
+    }
+
     @PostMapping("/{id}/comment")
     public Comment addComment(HttpServletRequest request, @PathVariable("id") int id, @RequestBody String content) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.addComment(currentUser, id, content);
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.addComment(currentUser, tenant, id, content);
     }
 
     @PutMapping("/{id}/comment/{commentId}")
     public Comment updateComment(HttpServletRequest request, @PathVariable("id") int id, @PathVariable("commentId") int commentId, @RequestBody String content) {
         User currentUser = (User) request.getAttribute("user");
-        return blogService.updateComment(currentUser, id, commentId, content);
+        String tenant = (String) request.getAttribute("tenant");
+        return blogService.updateComment(currentUser, tenant, id, commentId, content);
     }
 
     @DeleteMapping("/{id}/comment/{commentId}")
     public String deleteComment(HttpServletRequest request, @PathVariable("id") int id, @PathVariable("commentId") int commentId) {
         User currentUser = (User) request.getAttribute("user");
-        blogService.deleteComment(currentUser, id, commentId);
+        String tenant = (String) request.getAttribute("tenant");
+        blogService.deleteComment(currentUser, tenant, id, commentId);
         return "Deleted comment with id " + commentId + " from";
     }
 }
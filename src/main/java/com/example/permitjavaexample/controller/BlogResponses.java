@@ -0,0 +1,105 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.model.BlogPage;
+import com.example.permitjavaexample.model.BlogView;
+import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.tenant.TenantResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Strong ETags for blog reads. A blog's ETag hashes what the user was shown of it, a page's ETag
+ * hashes the store version together with the query and the blogs and comments the user was
+ * allowed to see, so neither can match once the content or the user's view of it has changed.
+ * Versions restart with the process, which is why every ETag also carries the time it started.
+ */
+@Component
+public class BlogResponses {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final String[] vary;
+
+    public BlogResponses(TenantResolver tenantResolver) {
+        this.vary = new String[]{HttpHeaders.AUTHORIZATION, tenantResolver.getHeader()};
+    }
+
+    public String etag(String tenant, BlogView blog) {
+        var key = new StringBuilder().append(tenant).append('\n').append(blog.id()).append('\n').append(blog.content()).append('\n')
+                .append(blog.commentCount()).append('\n');
+        for (Comment comment : blog.comments()) {
+            key.append(comment.getId()).append('\n').append(comment.getContent()).append('\n');
+        }
+        return hash(key);
+    }
+
+    /**
+     * @param storeVersion the store version, read before the page was built
+     */
+    public String etag(String tenant, long storeVersion, String author, Integer maxComments, BlogPage page) {
+        var key = new StringBuilder().append(tenant).append('\n').append(storeVersion).append('\n')
+                .append(author).append('\n').append(maxComments).append('\n').append(page.nextCursor()).append('\n');
+        for (BlogView blog : page.blogs()) {
+            key.append(blog.id());
+            if (blog.comments() != null) {
+                blog.comments().forEach(comment -> key.append(' ').append(comment.getId()));
+            }
+            key.append(',');
+        }
+        return hash(key);
+    }
+
+    private String hash(StringBuilder key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + epoch + "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code etag}. The weak comparison applies, as
+     * the header requires.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A 200 with the validator and caching headers. Clients may keep the body but must revalidate
+     * it, so every read is still authorized.
+     */
+    public ResponseEntity.BodyBuilder ok(String etag) {
+        return withHeaders(ResponseEntity.ok(), etag);
+    }
+
+    /**
+     * A 304, which repeats the headers of the 200 it stands in for.
+     */
+    public <T> ResponseEntity<T> notModified(String etag) {
+        return withHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+    }
+
+    private ResponseEntity.BodyBuilder withHeaders(ResponseEntity.BodyBuilder response, String etag) {
+        return response.eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).varyBy(vary);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.service.ImportJob;
+import com.example.permitjavaexample.service.ImportService;
+import io.permit.sdk.enforcement.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/import")
+public class ImportController {
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Imports a JSON array or newline-delimited JSON of blogs with nested comments. The body is
+     * read as it arrives; the response is the finished job.
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ImportJob importBlogs(HttpServletRequest request) throws IOException {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        return importService.importBlogs(currentUser, tenant, request.getInputStream());
+    }
+
+    /**
+     * Recent imports, newest first, including any still running.
+     */
+    @GetMapping
+    public List<ImportJob> getJobs(HttpServletRequest request) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        return importService.getJobs(currentUser, tenant);
+    }
+
+    @GetMapping("/{id}")
+    public ImportJob getJob(HttpServletRequest request, @PathVariable("id") String id) {
+        User currentUser = (User) request.getAttribute("user");
+        String tenant = (String) request.getAttribute("tenant");
+        return importService.getJob(currentUser, tenant, id);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.BlogPage;
+import com.example.permitjavaexample.model.BlogView;
+import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.model.SearchResult;
+import com.example.permitjavaexample.service.ReactiveBlogService;
+import io.permit.sdk.enforcement.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The {@link BlogController} contract on WebFlux. The current user and tenant are put on the
+ * exchange by the {@code ReactiveUserFilter}.
+ */
+@RestController
+@RequestMapping("/api/blogs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBlogController {
+    private static final int STREAM_PAGE_SIZE = 100;
+
+    private final ReactiveBlogService blogService;
+    private final BlogResponses responses;
+
+    public ReactiveBlogController(ReactiveBlogService blogService, BlogResponses responses) {
+        this.blogService = blogService;
+        this.responses = responses;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<BlogPage>> getAllBlogs(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                                      @RequestParam(value = "author", required = false) String author,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                      @RequestParam(value = "comments", required = false) Integer comments,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return Mono.defer(() -> {
+            long storeVersion = blogService.storeVersion(tenant);
+            return blogService.getBlogPage(currentUser, tenant, author, cursor, limit, comments).map(page -> {
+                var etag = responses.etag(tenant, storeVersion, author, comments, page);
+                return BlogResponses.matches(ifNoneMatch, etag) ? responses.<BlogPage>notModified(etag) : responses.ok(etag).body(page);
+            });
+        });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BlogView> streamBlogs(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                      @RequestParam(value = "author", required = false) String author,
+                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "comments", required = false) Integer comments) {
+        return blogService.streamBlogs(currentUser, tenant, author, cursor, STREAM_PAGE_SIZE, comments);
+    }
+
+    @GetMapping("/search")
+    public Mono<List<SearchResult>> search(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                           @RequestParam("q") String query,
+                                           @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return blogService.search(currentUser, tenant, query, limit);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> changes(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                                 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return blogService.changes(currentUser, tenant, lastEventId);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BlogView>> getBlogById(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                                      @PathVariable("id") int id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return blogService.getBlog(currentUser, tenant, id).map(blog -> {
+            var etag = responses.etag(tenant, blog);
+            return BlogResponses.matches(ifNoneMatch, etag) ? responses.<BlogView>notModified(etag) : responses.ok(etag).body(blog);
+        });
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Blog> addBlog(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @RequestBody String content) {
+        return blogService.addBlog(currentUser, tenant, content);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Blog> updateBlog(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id,
+                                 @RequestBody String content) {
+        return blogService.updateBlog(currentUser, tenant, id, content);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteBlog(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id) {
+        return blogService.deleteBlog(currentUser, tenant, id).thenReturn("Deleted blog with id " + id);
+    }
+
+    @GetMapping("/{id}/comment")
+    public Flux<Comment> getComments(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id) {
+        return blogService.getComments(currentUser, tenant, id);
+    }
+
+    @PostMapping("/{id}/comment")
+    public Mono<Comment> addComment(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id,
+                                    @RequestBody String content) {
+        return blogService.addComment(currentUser, tenant, id, content);
+    }
+
+    @PutMapping("/{id}/comment/{commentId}")
+    public Mono<Comment> updateComment(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id,
+                                       @PathVariable("commentId") int commentId, @RequestBody String content) {
+        return blogService.updateComment(currentUser, tenant, id, commentId, content);
+    }
+
+    @DeleteMapping("/{id}/comment/{commentId}")
+    public Mono<String> deleteComment(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant, @PathVariable("id") int id,
+                                      @PathVariable("commentId") int commentId) {
+        return blogService.deleteComment(currentUser, tenant, id, commentId).thenReturn("Deleted comment with id " + commentId + " from");
+    }
+}
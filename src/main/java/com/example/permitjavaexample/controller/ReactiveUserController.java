@@ -0,0 +1,33 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.service.ReactiveUserService;
+import io.permit.sdk.enforcement.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/signup")
+    public Mono<User> signup(@RequestBody String key) {
+        return userService.signup(key);
+    }
+
+    @PostMapping("/assign-role")
+    public Mono<Void> assignRole(@RequestAttribute(name = "user", required = false) User currentUser, @RequestAttribute("tenant") String tenant,
+                                 @RequestBody String role) {
+        return userService.assignRole(currentUser, tenant, role);
+    }
+}
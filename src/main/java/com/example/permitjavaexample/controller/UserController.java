@@ -5,12 +5,14 @@ import com.example.permitjavaexample.exception.UnauthorizedException;
 import com.example.permitjavaexample.service.UserService;
 import io.permit.sdk.enforcement.User;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
@@ -30,6 +32,6 @@ public class UserController {
         if (currentUser == null) {
             throw new UnauthorizedException("Not logged in");
         }
-        userService.assignRole(currentUser, role);
+        userService.assignRole(currentUser, (String) request.getAttribute("tenant"), role);
     }
 }
@@ -0,0 +1,11 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.model.ChangeEvent;
+import io.permit.sdk.enforcement.Resource;
+
+/**
+ * An event in a {@link ChangeLog}, with the resources a subscriber must be allowed to read to
+ * receive it. {@code comment} is only set for comment events.
+ */
+record Change(long sequence, ChangeEvent event, Resource blog, Resource comment) {
+}
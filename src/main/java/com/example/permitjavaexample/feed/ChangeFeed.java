@@ -0,0 +1,201 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.authorization.AuthorizationRequest;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.config.FeedProperties;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.model.ChangeEvent;
+import com.example.permitjavaexample.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Blog and comment changes of every tenant, for clients to follow instead of polling. Each tenant
+ * keeps its latest {@code feed.bufferSize} changes in a {@link ChangeLog}, and each client is a
+ * {@link Subscription} reading from it. A change only wakes the tenant's subscriptions, and each
+ * drains on a virtual thread of its own while it has something to send, so idle clients hold no
+ * thread and a client slow to accept its events blocks only its own. Event ids carry the time the
+ * process started, since sequence numbers restart with it.
+ */
+@Component
+public class ChangeFeed {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, ChangeLog> logs = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Authorizer authorizer;
+    private final DecisionCache decisionCache;
+    private final long decisionTtlNanos;
+    private final AuthorizationTimeTracker authorizationTime;
+    private final FeedProperties properties;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-feed-", 0).factory());
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "change-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter resets;
+
+    /**
+     * Decides read checks for subscriptions, all at once.
+     */
+    interface Authorizer {
+        boolean[] authorizeAll(User user, List<AuthorizationRequest> requests);
+    }
+
+    @Autowired
+    public ChangeFeed(UserService userService, DecisionCache decisionCache, AuthorizationTimeTracker authorizationTime, FeedProperties properties,
+                      MeterRegistry registry) {
+        this(userService::authorizeAll, decisionCache, authorizationTime, properties, registry);
+    }
+
+    ChangeFeed(Authorizer authorizer, DecisionCache decisionCache, AuthorizationTimeTracker authorizationTime, FeedProperties properties,
+               MeterRegistry registry) {
+        this.authorizer = authorizer;
+        this.decisionCache = decisionCache;
+        this.decisionTtlNanos = decisionCache.getTtl().toNanos();
+        this.authorizationTime = authorizationTime;
+        this.properties = properties;
+        long interval = properties.getHeartbeat().toMillis();
+        heartbeats.scheduleAtFixedRate(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+        Gauge.builder("blog.feed.subscribers", subscribers, AtomicInteger::get).register(registry);
+        this.resets = Counter.builder("blog.feed.resets").register(registry);
+    }
+
+    public void publish(String tenant, ChangeEvent event, Resource blog, Resource comment) {
+        log(tenant).append(event, blog, comment);
+        var followers = subscriptions.get(tenant);
+        if (followers != null) {
+            followers.forEach(Subscription::signal);
+        }
+    }
+
+    /**
+     * Follows a tenant's changes from the event named by {@code lastEventId}, or from now on if it
+     * is {@code null}. Nothing is sent until the returned subscription is given demand. The
+     * authorization time of its events counts toward the request bound to the calling thread.
+     */
+    public Subscription subscribe(User user, String tenant, String lastEventId, Subscription.Listener listener) {
+        var log = log(tenant);
+        var subscription = new Subscription(this, log, user, authorizationTime.current(), listener, properties.getMaxBatch(),
+                System.currentTimeMillis() + properties.getTimeout().toMillis());
+        subscriptions.computeIfAbsent(tenant, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscribers.incrementAndGet();
+        // Read once registered, so every later change signals the subscription
+        long last = log.last();
+        long resumeAt = sequence(lastEventId);
+        if (lastEventId == null) {
+            subscription.start(last, false);
+        } else if (resumeAt < 0 || resumeAt > last) {
+            subscription.start(last, true);
+        } else {
+            subscription.start(resumeAt, false);
+        }
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        for (var followers : subscriptions.values()) {
+            if (followers.remove(subscription)) {
+                subscribers.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private ChangeLog log(String tenant) {
+        return logs.computeIfAbsent(tenant, key -> new ChangeLog(properties.getBufferSize()));
+    }
+
+    String id(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * The sequence number in an event id of this process, or -1.
+     */
+    private long sequence(String id) {
+        if (id == null || !id.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    boolean[] authorizeAll(User user, AuthorizationTimeTracker.Timing timing, List<AuthorizationRequest> requests) {
+        var previous = authorizationTime.bind(timing);
+        try {
+            return authorizer.authorizeAll(user, requests);
+        } finally {
+            authorizationTime.restore(previous);
+        }
+    }
+
+    long decisionGeneration() {
+        return decisionCache.generation();
+    }
+
+    /**
+     * Whether a subscription's decision on {@code resource}, made in {@code generation} at
+     * {@code checkedAt} ({@link System#nanoTime()}), may still be used.
+     */
+    boolean isCurrent(User user, Resource resource, long generation, long checkedAt) {
+        return System.nanoTime() - checkedAt < decisionTtlNanos
+                && decisionCache.isCurrent(user.getKey(), resource.getType(), resource.getKey(), generation);
+    }
+
+    void execute(Runnable drain) {
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the subscription's response is closed along with the server
+        }
+    }
+
+    void recordReset() {
+        resets.increment();
+    }
+
+    /**
+     * Keeps idle connections open through proxies, and ends subscriptions past
+     * {@code feed.timeout}; clients reconnect with their last event id.
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (var followers : subscriptions.values()) {
+            for (var subscription : followers) {
+                if (now >= subscription.deadline()) {
+                    subscription.expire();
+                } else {
+                    subscription.heartbeat();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.model.ChangeEvent;
+import io.permit.sdk.enforcement.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The latest changes of one tenant, in a fixed-size ring. Changes are numbered from 1 and each
+ * one overwrites the change {@code capacity} before it. Appends are serialized; reads take no
+ * lock, and notice when the changes they ask for have already been overwritten.
+ */
+class ChangeLog {
+    private final AtomicReferenceArray<Change> slots;
+    private volatile long last;
+
+    ChangeLog(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    synchronized long append(ChangeEvent event, Resource blog, Resource comment) {
+        long sequence = last + 1;
+        slots.set(index(sequence), new Change(sequence, event, blog, comment));
+        // Published only once its slot is written, so readers never find a slot behind it empty
+        last = sequence;
+        return sequence;
+    }
+
+    /**
+     * The sequence number of the latest change, or 0 before the first.
+     */
+    long last() {
+        return last;
+    }
+
+    /**
+     * Up to {@code max} changes after sequence number {@code after}, oldest first, or
+     * {@code null} when the change following {@code after} is no longer in the ring or was never
+     * appended.
+     */
+    List<Change> after(long after, int max) {
+        long latest = last;
+        if (after > latest) {
+            return null;
+        }
+        var changes = new ArrayList<Change>((int) Math.min(max, latest - after));
+        for (long sequence = after + 1; sequence <= latest && changes.size() < max; sequence++) {
+            var change = slots.get(index(sequence));
+            if (change.sequence() != sequence) {
+                return null;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % slots.length());
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.authorization.AuthorizationRequest;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.model.ChangeEvent;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One client following a tenant's changes. A subscription buffers nothing: it only keeps its
+ * position in the tenant's {@link ChangeLog} and reads from there as far as the client has asked
+ * for, so an idle or slow client costs a few fields rather than a queue. Whether the user may read
+ * a blog or comment is remembered per subscription until the user or the resource is invalidated
+ * in the {@link com.example.permitjavaexample.authorization.DecisionCache}, or for at most its TTL.
+ */
+public class Subscription {
+    private static final Logger logger = LoggerFactory.getLogger(Subscription.class);
+    // Decisions remembered per subscription; the least recently used are checked again when needed
+    private static final int MAX_DECISIONS = 1024;
+
+    private record Decision(boolean permitted, long generation, long checkedAt) {
+    }
+
+    /**
+     * Receives a subscription's events. Calls never overlap, and come from the feed's threads.
+     */
+    public interface Listener {
+        void event(String id, ChangeEvent event) throws IOException;
+
+        /**
+         * The changes after the client's last event were dropped from the log, or happened before
+         * a restart. The client should reload what it shows and carry on from {@code id}.
+         */
+        void reset(String id) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void complete();
+    }
+
+    private final ChangeFeed feed;
+    private final ChangeLog log;
+    private final User user;
+    private final AuthorizationTimeTracker.Timing timing;
+    private final Listener listener;
+    private final int maxBatch;
+    private final long deadline;
+    private final AtomicLong demand = new AtomicLong();
+    // Signals since the last drain; held at 1 until the subscription has started
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private volatile boolean heartbeatDue;
+    private volatile boolean expired;
+    private volatile boolean closed;
+
+    // Only used by the drain, which never runs concurrently with itself
+    private long position;
+    private boolean resetDue;
+    private Map<String, Decision> decisions;
+
+    Subscription(ChangeFeed feed, ChangeLog log, User user, AuthorizationTimeTracker.Timing timing, Listener listener, int maxBatch, long deadline) {
+        this.feed = feed;
+        this.log = log;
+        this.user = user;
+        this.timing = timing;
+        this.listener = listener;
+        this.maxBatch = maxBatch;
+        this.deadline = deadline;
+    }
+
+    void start(long position, boolean resetDue) {
+        this.position = position;
+        this.resetDue = resetDue;
+        feed.execute(this::drain);
+    }
+
+    /**
+     * Lets {@code n} more messages be sent. Changes the user may not read are skipped without
+     * counting against it.
+     */
+    public void request(long n) {
+        if (n <= 0) {
+            return;
+        }
+        demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        signal();
+    }
+
+    public void close() {
+        if (!closed) {
+            closed = true;
+            feed.unsubscribe(this);
+        }
+    }
+
+    long deadline() {
+        return deadline;
+    }
+
+    void heartbeat() {
+        heartbeatDue = true;
+        signal();
+    }
+
+    void expire() {
+        expired = true;
+        signal();
+    }
+
+    void signal() {
+        if (pending.getAndIncrement() == 0) {
+            feed.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        boolean more = false;
+        while (true) {
+            try {
+                more = deliver();
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Closing change feed subscription of {}: {}", user.getKey(), e.toString());
+                close();
+            }
+            missed = pending.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+        // One batch per run, so a subscriber with a large backlog does not hold a thread
+        if (more) {
+            signal();
+        }
+    }
+
+    /**
+     * Sends at most one batch, and returns whether more changes are waiting for this
+     * subscription.
+     */
+    private boolean deliver() throws IOException {
+        if (closed) {
+            return false;
+        }
+        if (expired) {
+            close();
+            listener.complete();
+            return false;
+        }
+        if (demand.get() == 0) {
+            return false;
+        }
+        if (resetDue) {
+            resetDue = false;
+            reset();
+            return false;
+        }
+        var changes = log.after(position, (int) Math.min(demand.get(), maxBatch));
+        if (changes == null) {
+            // Fell behind by more than the log holds
+            position = log.last();
+            feed.recordReset();
+            reset();
+            return false;
+        }
+        if (changes.isEmpty()) {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                consume();
+                listener.heartbeat();
+            }
+            return false;
+        }
+        boolean[] permitted;
+        try {
+            permitted = authorize(changes);
+        } catch (RuntimeException e) {
+            // Tried again on the next change or heartbeat
+            logger.warn("Could not authorize change feed events for {}", user.getKey(), e);
+            return false;
+        }
+        heartbeatDue = false;
+        for (int i = 0; i < changes.size(); i++) {
+            var change = changes.get(i);
+            position = change.sequence();
+            if (permitted[i]) {
+                consume();
+                listener.event(feed.id(position), change.event());
+            }
+            if ("deleted".equals(change.event().action())) {
+                decisions.remove(key(change.comment() != null ? change.comment() : change.blog()));
+            }
+        }
+        return log.last() > position && demand.get() > 0;
+    }
+
+    private void reset() throws IOException {
+        // The client's position is gone, so the decisions made along the way go too
+        decisions = null;
+        consume();
+        listener.reset(feed.id(position));
+    }
+
+    private void consume() {
+        demand.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+    }
+
+    /**
+     * Whether the user may read each change: the blog, and for comment events the comment too.
+     * Resources without a remembered decision are checked together in one call.
+     */
+    private boolean[] authorize(List<Change> changes) {
+        if (decisions == null) {
+            decisions = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Decision> eldest) {
+                    return size() > MAX_DECISIONS;
+                }
+            };
+        }
+        var batch = new HashMap<String, Boolean>();
+        var requests = new ArrayList<AuthorizationRequest>();
+        var requested = new ArrayList<String>();
+        for (var change : changes) {
+            lookUp(change.blog(), batch, requests, requested);
+            if (change.comment() != null) {
+                lookUp(change.comment(), batch, requests, requested);
+            }
+        }
+        if (!requests.isEmpty()) {
+            // Read before checking, so an invalidation during the check drops these decisions
+            long generation = feed.decisionGeneration();
+            long checkedAt = System.nanoTime();
+            var allowed = feed.authorizeAll(user, timing, requests);
+            for (int i = 0; i < allowed.length; i++) {
+                batch.put(requested.get(i), allowed[i]);
+                decisions.put(requested.get(i), new Decision(allowed[i], generation, checkedAt));
+            }
+        }
+        var permitted = new boolean[changes.size()];
+        for (int i = 0; i < changes.size(); i++) {
+            var change = changes.get(i);
+            permitted[i] = batch.get(key(change.blog())) && (change.comment() == null || batch.get(key(change.comment())));
+        }
+        return permitted;
+    }
+
+    private void lookUp(Resource resource, Map<String, Boolean> batch, List<AuthorizationRequest> requests, List<String> requested) {
+        var key = key(resource);
+        if (batch.containsKey(key)) {
+            return;
+        }
+        var decision = decisions.get(key);
+        if (decision != null && feed.isCurrent(user, resource, decision.generation(), decision.checkedAt())) {
+            batch.put(key, decision.permitted());
+            return;
+        }
+        decisions.remove(key);
+        batch.put(key, null);
+        requests.add(new AuthorizationRequest("read", resource));
+        requested.add(key);
+    }
+
+    private static String key(Resource resource) {
+        return resource.getType() + ":" + resource.getKey();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.permitjavaexample.interceptor;
+
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports, per controller endpoint, how much of the request time was spent authorizing. The
+ * request's {@link AuthorizationTimeTracker.Timing} is a request attribute, so handlers that
+ * keep working on other threads, such as streamed responses, can bind it there.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AuthorizationMetricsInterceptor implements AsyncHandlerInterceptor {
+    public static final String TIMING_ATTRIBUTE = AuthorizationMetricsInterceptor.class.getName() + ".timing";
+    private static final String START_ATTRIBUTE = AuthorizationMetricsInterceptor.class.getName() + ".start";
+
+    private final AuthorizationTimeTracker tracker;
+    private final MeterRegistry registry;
+
+    public AuthorizationMetricsInterceptor(AuthorizationTimeTracker tracker, MeterRegistry registry) {
+        this.tracker = tracker;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Dispatched again when an async response completes; keep counting into the same timing
+        var timing = (AuthorizationTimeTracker.Timing) request.getAttribute(TIMING_ATTRIBUTE);
+        if (timing == null) {
+            timing = new AuthorizationTimeTracker.Timing();
+            request.setAttribute(TIMING_ATTRIBUTE, timing);
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        tracker.bind(timing);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        tracker.restore(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        tracker.restore(null);
+        var timing = (AuthorizationTimeTracker.Timing) request.getAttribute(TIMING_ATTRIBUTE);
+        var start = (Long) request.getAttribute(START_ATTRIBUTE);
+        if (timing == null || start == null || !(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        record(registry, method, timing.elapsedNanos(), System.nanoTime() - start);
+    }
+
+    static void record(MeterRegistry registry, HandlerMethod method, long authorization, long total) {
+        var endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        Timer.builder("http.authorization.time")
+                .description("Time spent authorizing per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(authorization, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("http.authorization.share")
+                .description("Share of the request time spent authorizing, between 0 and 1")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(registry)
+                .record(total == 0 ? 0 : Math.min(1.0, (double) authorization / total));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.permitjavaexample.interceptor;
+
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link AuthorizationMetricsInterceptor} for the WebFlux stack. The request's
+ * {@link AuthorizationTimeTracker.Timing} travels in the Reactor context, keyed by its class.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthorizationMetricsFilter implements WebFilter {
+    private final MeterRegistry registry;
+
+    public ReactiveAuthorizationMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var timing = new AuthorizationTimeTracker.Timing();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+                        AuthorizationMetricsInterceptor.record(registry, method, timing.elapsedNanos(), System.nanoTime() - start);
+                    }
+                })
+                .contextWrite(context -> context.put(AuthorizationTimeTracker.Timing.class, timing));
+    }
+}
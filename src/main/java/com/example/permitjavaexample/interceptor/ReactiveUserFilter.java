@@ -0,0 +1,51 @@
+package com.example.permitjavaexample.interceptor;
+
+import com.example.permitjavaexample.exception.BadRequestException;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.service.ReactiveUserService;
+import com.example.permitjavaexample.tenant.TenantResolver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link UserInterceptor} for the WebFlux stack.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserFilter implements WebFilter {
+    private final ReactiveUserService userService;
+    private final TenantResolver tenantResolver;
+
+    public ReactiveUserFilter(ReactiveUserService userService, TenantResolver tenantResolver) {
+        this.userService = userService;
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String tenant;
+        try {
+            tenant = tenantResolver.resolve(exchange.getRequest().getHeaders().getFirst(tenantResolver.getHeader()));
+        } catch (BadRequestException e) {
+            // Filters run outside the controller advice
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage()));
+        }
+        exchange.getAttributes().put("tenant", tenant);
+        var header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null) {
+            return chain.filter(exchange);
+        }
+        return userService.authenticate(header)
+                .doOnNext(user -> exchange.getAttributes().put("user", user))
+                .then(Mono.defer(() -> chain.filter(exchange)));
+    }
+}
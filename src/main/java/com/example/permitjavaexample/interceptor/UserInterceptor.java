@@ -1,23 +1,30 @@
 package com.example.permitjavaexample.interceptor;
 
 import com.example.permitjavaexample.service.UserService;
+import com.example.permitjavaexample.tenant.TenantResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserInterceptor implements HandlerInterceptor {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TenantResolver tenantResolver;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        request.setAttribute("tenant", tenantResolver.resolve(request.getHeader(tenantResolver.getHeader())));
         var header = request.getHeader("Authorization");
-        String userKey = header == null ? null : header.replaceFirst("Bearer ", "");
-        if (userKey != null && !userKey.isEmpty()) {
-            request.setAttribute("user", userService.login(userKey));
+        var user = header == null ? null : userService.authenticate(header);
+        if (user != null) {
+            request.setAttribute("user", user);
         }
         return true;
     }
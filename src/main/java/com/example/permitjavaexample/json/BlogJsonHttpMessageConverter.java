@@ -0,0 +1,48 @@
+package com.example.permitjavaexample.json;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Blog} and {@link Comment} responses with the {@link BlogJsonWriter}, straight into
+ * the response body. Everything else, and every request body, is left to Jackson.
+ */
+public class BlogJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    private final BlogJsonWriter writer;
+
+    public BlogJsonHttpMessageConverter(BlogJsonWriter writer) {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = writer;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == Blog.class || clazz == Comment.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Blogs and comments are read as JSON by Jackson", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof Blog blog) {
+            writer.write(blog, outputMessage.getBody());
+        } else {
+            writer.write((Comment) value, outputMessage.getBody());
+        }
+    }
+}
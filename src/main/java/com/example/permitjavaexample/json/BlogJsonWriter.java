@@ -0,0 +1,165 @@
+package com.example.permitjavaexample.json;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes blogs and comments as JSON from UTF-8 fragments cached on the objects themselves. A
+ * comment is serialized once per content change and a blog's own fields once per content change,
+ * so writing a large blog again only copies bytes. Whole blogs are also kept assembled, per
+ * version and up to {@code store.jsonCacheBytes}, so a blog read again unchanged is written with
+ * one copy, and an edit to a large blog re-serializes only what it changed before the blog is
+ * assembled again. The output is the same JSON Jackson writes for these classes.
+ */
+@Component
+public class BlogJsonWriter {
+    private static final byte[] COMMENTS = ",\"comments\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMMA = {','};
+    private static final byte[] END = {']', '}'};
+
+    private record Assembled(long version, byte[] json) {
+    }
+
+    private final JsonFactory jsonFactory;
+    // Keyed by identity, so a deleted blog's entry goes with it; null when disabled
+    private final Cache<Blog, Assembled> blogs;
+
+    public BlogJsonWriter(ObjectMapper objectMapper, StoreProperties properties) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.blogs = properties.getJsonCacheBytes() <= 0 ? null : Caffeine.newBuilder()
+                .weakKeys()
+                .maximumWeight(properties.getJsonCacheBytes())
+                .weigher((Blog blog, Assembled assembled) -> assembled.json().length)
+                .build();
+    }
+
+    public void write(Blog blog, OutputStream out) throws IOException {
+        if (blogs != null) {
+            out.write(json(blog));
+            return;
+        }
+        writeFragments(blog, out);
+    }
+
+    /**
+     * The whole blog as JSON, assembled from its fragments at most once per version while it
+     * stays cached.
+     */
+    public byte[] json(Blog blog) {
+        // Read the version first, so content newer than the version is cached under it, never older
+        long version = blog.getVersion();
+        var cached = blogs == null ? null : blogs.getIfPresent(blog);
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+        var out = new ByteArrayOutputStream(cached == null ? 256 : cached.json().length + 64);
+        try {
+            writeFragments(blog, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize blog " + blog.getId(), e);
+        }
+        var assembled = new Assembled(version, out.toByteArray());
+        if (blogs != null) {
+            blogs.asMap().merge(blog, assembled, (current, fresh) -> current.version() >= fresh.version() ? current : fresh);
+        }
+        return assembled.json();
+    }
+
+    private void writeFragments(Blog blog, OutputStream out) throws IOException {
+        out.write(head(blog));
+        out.write(COMMENTS);
+        var comments = blog.getComments();
+        for (int i = 0; i < comments.size(); i++) {
+            if (i > 0) {
+                out.write(COMMA);
+            }
+            out.write(json(comments.get(i)));
+        }
+        out.write(END);
+    }
+
+    public void write(Comment comment, OutputStream out) throws IOException {
+        out.write(json(comment));
+    }
+
+    /**
+     * The blog's JSON as buffers, in order, for writers that take buffers rather than a stream:
+     * the whole blog when it is cached, otherwise the cached fragments themselves.
+     */
+    public List<byte[]> fragments(Blog blog) {
+        if (blogs != null) {
+            return List.of(json(blog));
+        }
+        var comments = blog.getComments();
+        var fragments = new ArrayList<byte[]>(comments.size() * 2 + 2);
+        fragments.add(head(blog));
+        fragments.add(COMMENTS);
+        for (int i = 0; i < comments.size(); i++) {
+            if (i > 0) {
+                fragments.add(COMMA);
+            }
+            fragments.add(json(comments.get(i)));
+        }
+        fragments.add(END);
+        return fragments;
+    }
+
+    /**
+     * The blog's fields up to, and without, its comments and closing brace.
+     */
+    private byte[] head(Blog blog) {
+        var cached = blog.cachedJson();
+        if (cached != null) {
+            return cached;
+        }
+        var content = blog.getContent();
+        var json = object(blog.getId(), blog.getAuthor(), content, false);
+        blog.cacheJson(content, json);
+        return json;
+    }
+
+    private byte[] json(Comment comment) {
+        var cached = comment.cachedJson();
+        if (cached != null) {
+            return cached;
+        }
+        var content = comment.getContent();
+        var json = object(comment.getId(), comment.getAuthor(), content, true);
+        comment.cacheJson(content, json);
+        return json;
+    }
+
+    private byte[] object(Integer id, String author, String content, boolean close) {
+        var out = new ByteArrayOutputStream(64 + (content == null ? 0 : content.length()));
+        try (var generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("author", author);
+            generator.writeStringField("content", content);
+            if (close) {
+                generator.writeEndObject();
+            } else {
+                // Leave the object open for the comments; closing the generator must not close it
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize JSON of " + id, e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.permitjavaexample.metrics;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the time spent in authorization on behalf of a request, so it can be reported as
+ * a share of the total request time. Each request gets its own {@link Timing}, carried as a
+ * request attribute or in the Reactor context. Threads working for the request bind it while
+ * they do, so checks are counted wherever they run. A thread without a binding counts nothing.
+ */
+@Component
+public class AuthorizationTimeTracker {
+
+    /**
+     * Authorization time of one request, added to from any thread.
+     */
+    public static final class Timing {
+        private final AtomicLong elapsedNanos = new AtomicLong();
+
+        public void add(long nanos) {
+            elapsedNanos.addAndGet(nanos);
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos.get();
+        }
+    }
+
+    private final ThreadLocal<Timing> current = new ThreadLocal<>();
+
+    /**
+     * The timing bound to this thread, or {@code null}.
+     */
+    public Timing current() {
+        return current.get();
+    }
+
+    /**
+     * Binds {@code timing} to this thread, and returns the binding to {@link #restore} after.
+     */
+    public Timing bind(Timing timing) {
+        var previous = current.get();
+        current.set(timing);
+        return previous;
+    }
+
+    public void restore(Timing previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long startNanos) {
+        var timing = current.get();
+        if (timing != null) {
+            timing.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Counts the time from subscribing to {@code decision} until it terminates toward the
+     * {@link Timing} in the subscriber's context, if there is one.
+     */
+    public <T> Mono<T> time(Mono<T> decision) {
+        return Mono.deferContextual(context -> {
+            Timing timing = context.getOrDefault(Timing.class, null);
+            if (timing == null) {
+                return decision;
+            }
+            long start = System.nanoTime();
+            return decision.doFinally(signal -> timing.add(System.nanoTime() - start));
+        });
+    }
+}
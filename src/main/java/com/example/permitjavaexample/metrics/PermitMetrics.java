@@ -0,0 +1,63 @@
+package com.example.permitjavaexample.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers and counters for Permit SDK/PDP calls and authorization decisions.
+ * <ul>
+ *     <li>{@code permit.calls}: latency of every Permit call, tagged by operation, action, resource type and outcome</li>
+ *     <li>{@code permit.decisions}: authorization decisions, tagged by where they came from and their outcome</li>
+ * </ul>
+ */
+@Component
+public class PermitMetrics {
+    public static final String PERMIT = "permit";
+    public static final String DENY = "deny";
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String REJECTED = "rejected";
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    public PermitMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordCall(Timer.Sample sample, String operation, String action, String resourceType, String outcome) {
+        sample.stop(Timer.builder("permit.calls")
+                .description("Latency of calls to the Permit PDP and API")
+                .tag("operation", operation)
+                .tag("action", action == null ? NONE : action)
+                .tag("resource_type", resourceType == null ? NONE : resourceType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    public void recordCall(Timer.Sample sample, String operation, String resourceType, String outcome) {
+        recordCall(sample, operation, null, resourceType, outcome);
+    }
+
+    public void recordDecision(String source, String action, String resourceType, boolean permitted) {
+        Counter.builder("permit.decisions")
+                .description("Authorization decisions by source")
+                .tag("source", source)
+                .tag("action", action)
+                .tag("resource_type", resourceType)
+                .tag("outcome", permitted ? PERMIT : DENY)
+                .register(registry)
+                .increment();
+    }
+
+    public static String outcome(boolean permitted) {
+        return permitted ? PERMIT : DENY;
+    }
+}
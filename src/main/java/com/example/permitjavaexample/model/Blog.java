@@ -1,16 +1,48 @@
 package com.example.permitjavaexample.model;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.permit.sdk.enforcement.Resource;
+
+import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * A blog and its comments, owned by one tenant. Comments live in a concurrent map ordered by id, which is also the
+ * order they were created in, so adding or removing one never copies the others and never blocks
+ * a reader. Readers get an immutable snapshot that is rebuilt at most once per change. The blog's
+ * own JSON, without its comments, can be cached on it and is dropped when the content changes.
+ */
+// The order BlogJsonWriter writes the fields in
+@JsonPropertyOrder({"id", "author", "content", "comments"})
 public class Blog {
+    public static final String DEFAULT_TENANT = "default";
+
+    private record CommentSnapshot(long version, List<Comment> comments) {
+    }
+
     private final Integer id;
+    private final String tenant;
     private final String author;
-    private String content;
-    private final List<Comment> comments = new ArrayList<>();
+    private volatile String content;
+    private volatile Resource resource;
+    private final ConcurrentNavigableMap<Integer, Comment> commentsById = new ConcurrentSkipListMap<>();
+    private final AtomicLong commentsVersion = new AtomicLong();
+    private volatile CommentSnapshot comments = new CommentSnapshot(0, List.of());
+    private final AtomicLong version = new AtomicLong();
+    private volatile JsonFragment json;
 
     public Blog(Integer id, String author, String content) {
+        this(id, DEFAULT_TENANT, author, content);
+    }
+
+    public Blog(Integer id, String tenant, String author, String content) {
         this.id = id;
+        this.tenant = tenant;
         this.author = author;
         this.content = content;
     }
@@ -19,19 +51,101 @@ public class Blog {
         return id;
     }
 
+    @JsonIgnore
+    public String getTenant() {
+        return tenant;
+    }
+
     public String getAuthor() {
         return author;
     }
 
+    public String getContent() {
+        return content;
+    }
+
     public void setContent(String content) {
         this.content = content;
+        json = null;
+        version.incrementAndGet();
+    }
+
+    /**
+     * The JSON cached by {@link #cacheJson} if it was made from the current content, otherwise
+     * {@code null}.
+     */
+    public byte[] cachedJson() {
+        var cached = json;
+        return cached != null && cached.content() == content ? cached.json() : null;
     }
 
+    /**
+     * Caches JSON made from {@code content}, which must be the instance read from {@link #getContent}.
+     */
+    public void cacheJson(String content, byte[] json) {
+        this.json = new JsonFragment(content, json);
+    }
+
+    /**
+     * Counts the changes to this blog and its comments. It is only incremented once a change is
+     * visible, so a reader that reads the version first never sees older content than it names.
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * The comments as of the latest change, oldest first. The list is immutable and is not
+     * affected by later changes.
+     */
     public List<Comment> getComments() {
-        return comments;
+        // Read the version first, so a snapshot built from a newer map is never mistaken for current
+        long version = commentsVersion.get();
+        var snapshot = comments;
+        if (snapshot.version() != version) {
+            snapshot = new CommentSnapshot(version, List.copyOf(commentsById.values()));
+            comments = snapshot;
+        }
+        return snapshot.comments();
+    }
+
+    public Optional<Comment> findComment(int commentId) {
+        return Optional.ofNullable(commentsById.get(commentId));
     }
 
     public void addComment(Comment comment) {
-        comments.add(comment);
+        commentsById.put(comment.getId(), comment);
+        commentsVersion.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    public void updateComment(Comment comment, String content) {
+        comment.setContent(content);
+        version.incrementAndGet();
+    }
+
+    public Optional<Comment> removeComment(int commentId) {
+        var comment = commentsById.remove(commentId);
+        if (comment != null) {
+            commentsVersion.incrementAndGet();
+            version.incrementAndGet();
+        }
+        return Optional.ofNullable(comment);
+    }
+
+    /**
+     * The Permit resource describing this blog in its tenant, built once. Its only attribute is
+     * the author, which never changes, so the descriptor never needs rebuilding.
+     */
+    public Resource toResource() {
+        var cached = resource;
+        if (cached == null) {
+            var attributes = new HashMap<String, Object>();
+            attributes.put("author", author);
+            cached = new Resource.Builder("blog").withKey(id.toString()).withTenant(tenant).withAttributes(attributes).build();
+            resource = cached;
+        }
+        return cached;
     }
 }
@@ -0,0 +1,11 @@
+package com.example.permitjavaexample.model;
+
+import java.util.List;
+
+/**
+ * One item of a bulk import: a blog with its comments, each kept under its original author.
+ */
+public record BlogImport(String author, String content, List<CommentImport> comments) {
+    public record CommentImport(String author, String content) {
+    }
+}
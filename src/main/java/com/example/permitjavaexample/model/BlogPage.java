@@ -0,0 +1,10 @@
+package com.example.permitjavaexample.model;
+
+import java.util.List;
+
+/**
+ * One page of blogs. {@code nextCursor} is {@code null} on the last page. A page that is not the
+ * last may hold fewer blogs than asked for, even none, when few of the blogs scanned were readable.
+ */
+public record BlogPage(List<BlogView> blogs, String nextCursor) {
+}
@@ -0,0 +1,30 @@
+package com.example.permitjavaexample.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A blog as read by {@code GET /api/blogs} and {@code GET /api/blogs/{id}}, with all, the first
+ * few or none of the comments the reader may see.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BlogView(Integer id, String author, String content, List<Comment> comments, int commentCount) {
+
+    /**
+     * @param readable    the blog's comments the reader may see, in order
+     * @param maxComments {@code null} to include every readable comment, {@code 0} to omit them,
+     *                    otherwise the number of leading readable comments to include
+     */
+    public static BlogView of(Blog blog, List<Comment> readable, Integer maxComments) {
+        List<Comment> included;
+        if (maxComments == null) {
+            included = readable;
+        } else if (maxComments == 0) {
+            included = null;
+        } else {
+            included = readable.stream().limit(maxComments).toList();
+        }
+        return new BlogView(blog.getId(), blog.getAuthor(), blog.getContent(), included, blog.getComments().size());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.permitjavaexample.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A blog or comment that was {@code created}, {@code updated} or {@code deleted}, as sent by
+ * {@code GET /api/blogs/changes}. {@code commentId} is only set for comments, and
+ * {@code content} is the content written by the change, so it is not set for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEvent(String type, String action, int blogId, Integer commentId, String author, String content) {
+
+    public static ChangeEvent of(String action, Blog blog, String content) {
+        return new ChangeEvent("blog", action, blog.getId(), null, blog.getAuthor(), content);
+    }
+
+    public static ChangeEvent of(String action, Blog blog, Comment comment, String content) {
+        return new ChangeEvent("comment", action, blog.getId(), comment.getId(), comment.getAuthor(), content);
+    }
+}
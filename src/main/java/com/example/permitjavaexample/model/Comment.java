@@ -1,12 +1,28 @@
 package com.example.permitjavaexample.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.permit.sdk.enforcement.Resource;
+
+import java.util.HashMap;
+
+// The order BlogJsonWriter writes the fields in
+@JsonPropertyOrder({"id", "author", "content"})
 public class Comment {
     private final Integer id;
+    private final String tenant;
     private final String author;
-    private String content;
+    private volatile String content;
+    private volatile Resource resource;
+    private volatile JsonFragment json;
 
     public Comment(Integer id, String author, String content) {
+        this(id, Blog.DEFAULT_TENANT, author, content);
+    }
+
+    public Comment(Integer id, String tenant, String author, String content) {
         this.id = id;
+        this.tenant = tenant;
         this.author = author;
         this.content = content;
     }
@@ -15,11 +31,52 @@ public class Comment {
         return id;
     }
 
+    public String getContent() {
+        return content;
+    }
+
     public void setContent(String content) {
         this.content = content;
+        json = null;
+    }
+
+    /**
+     * The JSON cached by {@link #cacheJson} if it was made from the current content, otherwise
+     * {@code null}.
+     */
+    public byte[] cachedJson() {
+        var cached = json;
+        return cached != null && cached.content() == content ? cached.json() : null;
+    }
+
+    /**
+     * Caches JSON made from {@code content}, which must be the instance read from {@link #getContent}.
+     */
+    public void cacheJson(String content, byte[] json) {
+        this.json = new JsonFragment(content, json);
+    }
+
+    @JsonIgnore
+    public String getTenant() {
+        return tenant;
     }
 
     public String getAuthor() {
         return author;
     }
+
+    /**
+     * The Permit resource describing this comment in its tenant, built once. Its only attribute
+     * is the author, which never changes, so the descriptor never needs rebuilding.
+     */
+    public Resource toResource() {
+        var cached = resource;
+        if (cached == null) {
+            var attributes = new HashMap<String, Object>();
+            attributes.put("author", author);
+            cached = new Resource.Builder("comment").withKey(id.toString()).withTenant(tenant).withAttributes(attributes).build();
+            resource = cached;
+        }
+        return cached;
+    }
 }
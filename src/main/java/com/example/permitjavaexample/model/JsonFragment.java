@@ -0,0 +1,9 @@
+package com.example.permitjavaexample.model;
+
+/**
+ * Serialized JSON cached on a blog or comment, valid only while the object still has the content
+ * it was made from. Content strings are compared by identity, so a fragment made from content that
+ * was replaced meanwhile is never taken for current.
+ */
+record JsonFragment(String content, byte[] json) {
+}
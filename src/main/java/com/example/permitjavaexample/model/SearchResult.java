@@ -0,0 +1,11 @@
+package com.example.permitjavaexample.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A blog or comment found by {@code GET /api/blogs/search}. {@code commentId} is only set for
+ * comments, and a higher {@code score} is a better match.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchResult(String type, int blogId, Integer commentId, String author, String content, double score) {
+}
@@ -0,0 +1,182 @@
+package com.example.permitjavaexample.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only, line-delimited JSON journal of outbox mutations and their acknowledgements.
+ * Appends only write; {@link #sync} forces them to disk. Callers append while holding the
+ * outbox lock and sync after releasing it, so writers arriving while one sync runs share the
+ * next one (group commit) instead of each forcing the file in turn.
+ */
+class OutboxJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxJournal.class);
+
+    record Entry(String op, long sequence, PermitMutation mutation) {
+        static final String ENQUEUE = "enqueue";
+        static final String ACK = "ack";
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final Object syncLock = new Object();
+    // Entries appended so far, and how many of those are known to be on disk
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong synced = new AtomicLong();
+    private FileChannel channel;
+
+    OutboxJournal(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Returns the mutations that were enqueued but never acknowledged, in sequence order, and
+     * rewrites the journal to contain only those.
+     */
+    synchronized List<PermitMutation> open() throws IOException {
+        var pending = new LinkedHashMap<Long, PermitMutation>();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.exists(path)) {
+            for (var line : Files.readAllLines(path)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (IOException e) {
+                    // A torn final line after a crash, everything before it is intact
+                    logger.warn("Ignoring unreadable outbox journal entry: {}", e.getMessage());
+                    continue;
+                }
+                if (Entry.ENQUEUE.equals(entry.op())) {
+                    pending.put(entry.sequence(), entry.mutation());
+                } else {
+                    pending.remove(entry.sequence());
+                }
+            }
+        }
+        rewrite(pending.values());
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Appends an enqueue entry, and returns the ticket to {@link #sync} it with.
+     */
+    synchronized long enqueued(PermitMutation mutation) {
+        return append(new Entry(Entry.ENQUEUE, mutation.sequence(), mutation));
+    }
+
+    synchronized long acknowledged(long sequence) {
+        return append(new Entry(Entry.ACK, sequence, null));
+    }
+
+    /**
+     * The ticket of the latest entry.
+     */
+    long appended() {
+        return appended.get();
+    }
+
+    /**
+     * Returns once the entry with {@code ticket}, and every entry before it, is on disk. One
+     * force covers everything appended before it started.
+     */
+    void sync(long ticket) {
+        if (!fsync || synced.get() >= ticket) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get() >= ticket) {
+                return;
+            }
+            FileChannel current;
+            long covered;
+            synchronized (this) {
+                current = channel;
+                covered = appended.get();
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Compacted in the meantime, and the rewritten journal was forced as a whole
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync outbox journal", e);
+            }
+            synced.accumulateAndGet(covered, Math::max);
+        }
+    }
+
+    /**
+     * Replaces the journal with the given pending mutations, dropping acknowledged history.
+     */
+    synchronized void compact(Collection<PermitMutation> pending) throws IOException {
+        rewrite(pending);
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    private void rewrite(Collection<PermitMutation> pending) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (var mutation : pending) {
+                write(out, new Entry(Entry.ENQUEUE, mutation.sequence(), mutation));
+            }
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        synced.accumulateAndGet(appended.get(), Math::max);
+    }
+
+    private long append(Entry entry) {
+        try {
+            write(channel, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write outbox journal", e);
+        }
+        return appended.incrementAndGet();
+    }
+
+    private void write(FileChannel out, Entry entry) throws IOException {
+        var line = objectMapper.writeValueAsBytes(entry);
+        var buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
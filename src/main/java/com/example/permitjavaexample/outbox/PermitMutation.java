@@ -0,0 +1,61 @@
+package com.example.permitjavaexample.outbox;
+
+import com.example.permitjavaexample.authorization.LocalGrant;
+
+/**
+ * A Permit API write recorded in the outbox. Mutations sharing a {@code partition} are applied
+ * in sequence order; comment writes use their parent blog as partition so they always follow
+ * the blog's creation and precede its deletion.
+ */
+public record PermitMutation(
+        long sequence,
+        Type type,
+        String partition,
+        String resource,
+        String tenant,
+        String userKey,
+        String role,
+        String relation,
+        String object,
+        LocalGrant grant
+) {
+    public enum Type {
+        CREATE_RESOURCE_INSTANCE,
+        DELETE_RESOURCE_INSTANCE,
+        ASSIGN_RESOURCE_ROLE,
+        CREATE_RELATIONSHIP_TUPLE
+    }
+
+    public static PermitMutation createResourceInstance(String partition, String resource, String tenant) {
+        return new PermitMutation(0, Type.CREATE_RESOURCE_INSTANCE, partition, resource, tenant, null, null, null, null, null);
+    }
+
+    public static PermitMutation deleteResourceInstance(String partition, String resource) {
+        return new PermitMutation(0, Type.DELETE_RESOURCE_INSTANCE, partition, resource, null, null, null, null, null, null);
+    }
+
+    public static PermitMutation assignResourceRole(String partition, String resource, String tenant, String userKey, String role) {
+        return new PermitMutation(0, Type.ASSIGN_RESOURCE_ROLE, partition, resource, tenant, userKey, role, null, null,
+                new LocalGrant(userKey, resource, role));
+    }
+
+    public static PermitMutation createRelationshipTuple(String partition, String subject, String relation, String object, LocalGrant derivedGrant) {
+        return new PermitMutation(0, Type.CREATE_RELATIONSHIP_TUPLE, partition, subject, null, null, null, relation, object, derivedGrant);
+    }
+
+    PermitMutation withSequence(long sequence) {
+        return new PermitMutation(sequence, type, partition, resource, tenant, userKey, role, relation, object, grant);
+    }
+
+    boolean references(String resourceId) {
+        return resourceId.equals(resource) || resourceId.equals(object);
+    }
+
+    String resourceType() {
+        return resource.substring(0, resource.indexOf(':'));
+    }
+
+    String resourceKey() {
+        return resource.substring(resource.indexOf(':') + 1);
+    }
+}
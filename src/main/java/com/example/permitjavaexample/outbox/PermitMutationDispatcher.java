@@ -0,0 +1,90 @@
+package com.example.permitjavaexample.outbox;
+
+import com.example.permitjavaexample.metrics.PermitMetrics;
+import io.permit.sdk.Permit;
+import io.permit.sdk.api.PermitApiError;
+import io.permit.sdk.api.PermitContextError;
+import io.permit.sdk.openapi.models.RelationshipTupleCreate;
+import io.permit.sdk.openapi.models.ResourceInstanceCreate;
+import io.permit.sdk.openapi.models.RoleAssignmentCreate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Applies outbox mutations with the Permit API.
+ */
+@Component
+public class PermitMutationDispatcher {
+    private final Permit permit;
+    private final PermitMetrics metrics;
+
+    public PermitMutationDispatcher(Permit permit, PermitMetrics metrics) {
+        this.permit = permit;
+        this.metrics = metrics;
+    }
+
+    public void apply(PermitMutation mutation) throws IOException, PermitApiError, PermitContextError {
+        var sample = metrics.start();
+        try {
+            dispatch(mutation);
+            metrics.recordCall(sample, operation(mutation.type()), mutation.resourceType(), PermitMetrics.SUCCESS);
+        } catch (IOException | PermitApiError | PermitContextError | RuntimeException e) {
+            metrics.recordCall(sample, operation(mutation.type()), mutation.resourceType(), PermitMetrics.ERROR);
+            throw e;
+        }
+    }
+
+    /**
+     * Applies role assignments or relationship tuples, all of the given type, as one bulk API call.
+     */
+    public void applyAll(PermitMutation.Type type, List<PermitMutation> mutations) throws IOException, PermitApiError, PermitContextError {
+        var sample = metrics.start();
+        var resourceType = mutations.get(0).resourceType();
+        try {
+            switch (type) {
+                case ASSIGN_RESOURCE_ROLE -> permit.api.roleAssignments.bulkAssign(
+                        mutations.stream().map(PermitMutationDispatcher::roleAssignment).toList());
+                case CREATE_RELATIONSHIP_TUPLE -> permit.api.relationshipTuples.bulkCreate(
+                        mutations.stream().map(PermitMutationDispatcher::relationshipTuple).toList());
+                default -> throw new IllegalArgumentException("No bulk API for " + type);
+            }
+            metrics.recordCall(sample, bulkOperation(type), resourceType, PermitMetrics.SUCCESS);
+        } catch (IOException | PermitApiError | PermitContextError | RuntimeException e) {
+            metrics.recordCall(sample, bulkOperation(type), resourceType, PermitMetrics.ERROR);
+            throw e;
+        }
+    }
+
+    private static String bulkOperation(PermitMutation.Type type) {
+        return type == PermitMutation.Type.ASSIGN_RESOURCE_ROLE ? "roleAssignments.bulkAssign" : "relationshipTuples.bulkCreate";
+    }
+
+    private static String operation(PermitMutation.Type type) {
+        return switch (type) {
+            case CREATE_RESOURCE_INSTANCE -> "resourceInstances.create";
+            case DELETE_RESOURCE_INSTANCE -> "resourceInstances.delete";
+            case ASSIGN_RESOURCE_ROLE -> "roleAssignments.assign";
+            case CREATE_RELATIONSHIP_TUPLE -> "relationshipTuples.create";
+        };
+    }
+
+    private void dispatch(PermitMutation mutation) throws IOException, PermitApiError, PermitContextError {
+        switch (mutation.type()) {
+            case CREATE_RESOURCE_INSTANCE -> permit.api.resourceInstances.create(
+                    new ResourceInstanceCreate(mutation.resourceKey(), mutation.resourceType()).withTenant(mutation.tenant()));
+            case DELETE_RESOURCE_INSTANCE -> permit.api.resourceInstances.delete(mutation.resource());
+            case ASSIGN_RESOURCE_ROLE -> permit.api.roleAssignments.assign(roleAssignment(mutation));
+            case CREATE_RELATIONSHIP_TUPLE -> permit.api.relationshipTuples.create(relationshipTuple(mutation));
+        }
+    }
+
+    private static RoleAssignmentCreate roleAssignment(PermitMutation mutation) {
+        return new RoleAssignmentCreate(mutation.role(), mutation.userKey()).withResourceInstance(mutation.resource()).withTenant(mutation.tenant());
+    }
+
+    private static RelationshipTupleCreate relationshipTuple(PermitMutation mutation) {
+        return new RelationshipTupleCreate(mutation.resource(), mutation.relation(), mutation.object());
+    }
+}
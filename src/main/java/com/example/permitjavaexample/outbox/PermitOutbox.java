@@ -0,0 +1,371 @@
+package com.example.permitjavaexample.outbox;
+
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.LocalAuthorizationState;
+import com.example.permitjavaexample.authorization.LocalGrantOverlay;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Journals Permit API writes and applies them in the background, so request latency no longer
+ * depends on the Permit API. Mutations are drained in batches, applied in order within their
+ * partition and concurrently across partitions, and retried with backoff until acknowledged.
+ * While a grant-carrying write is pending, its grant is served from the {@link LocalGrantOverlay}.
+ */
+@Component
+public class PermitOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(PermitOutbox.class);
+
+    private static final class Pending {
+        final PermitMutation mutation;
+        int attempts;
+        long notBefore;
+        boolean inFlight;
+
+        Pending(PermitMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    private final PermitMutationDispatcher dispatcher;
+    private final LocalGrantOverlay localGrants;
+    private final LocalAuthorizationState localState;
+    private final DecisionCache decisionCache;
+    private final ExecutorService permitExecutor;
+    private final PermitProperties.Outbox config;
+    private final OutboxJournal journal;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public PermitOutbox(PermitMutationDispatcher dispatcher, LocalGrantOverlay localGrants, LocalAuthorizationState localState, DecisionCache decisionCache,
+                        @Qualifier("permitExecutor") ExecutorService permitExecutor, PermitProperties properties, ObjectMapper objectMapper) {
+        this.dispatcher = dispatcher;
+        this.localGrants = localGrants;
+        this.localState = localState;
+        this.decisionCache = decisionCache;
+        this.permitExecutor = permitExecutor;
+        this.config = properties.getOutbox();
+        this.journal = config.isEnabled() ? new OutboxJournal(Path.of(config.getJournal()), objectMapper, config.isFsync()) : null;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        for (var mutation : journal.open()) {
+            localState.apply(mutation);
+            pending.put(mutation.sequence(), new Pending(mutation));
+            sequence.set(Math.max(sequence.get(), mutation.sequence()));
+            if (mutation.grant() != null) {
+                localGrants.grant(mutation.grant());
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Recovered {} pending Permit mutations from {}", pending.size(), config.getJournal());
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("permit-outbox").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Records a mutation. With the outbox disabled it is applied synchronously instead.
+     */
+    public void enqueue(PermitMutation mutation) {
+        localState.apply(mutation);
+        if (journal == null) {
+            applyNow(mutation);
+            return;
+        }
+        long ticket;
+        lock.lock();
+        try {
+            if (mutation.type() == PermitMutation.Type.DELETE_RESOURCE_INSTANCE && coalesceDelete(mutation.resource())) {
+                ticket = journal.appended();
+            } else {
+                var sequenced = mutation.withSequence(sequence.incrementAndGet());
+                ticket = journal.enqueued(sequenced);
+                pending.put(sequenced.sequence(), new Pending(sequenced));
+                if (sequenced.grant() != null) {
+                    localGrants.grant(sequenced.grant());
+                }
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Outside the lock, so concurrent writers share a sync rather than queue for their own
+        journal.sync(ticket);
+    }
+
+    /**
+     * Blocks until every mutation enqueued so far has been applied or given up on.
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appliedCount() {
+        return applied.get();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    private void applyNow(PermitMutation mutation) {
+        try {
+            dispatcher.apply(mutation);
+        } catch (Exception e) {
+            // In production code you should consider action atomicity, and rollback the action.
+            throw new RuntimeException("Failed to apply " + mutation.type() + " for " + mutation.resource() + ": " + e.getMessage(), e);
+        }
+        invalidate(mutation);
+    }
+
+    /**
+     * A delete whose create has not been sent yet cancels out, together with anything that
+     * references the never-created resource and everything in its partition, such as the
+     * creation of its comments. Must be called holding the lock.
+     */
+    private boolean coalesceDelete(String resource) {
+        boolean createPending = pending.values().stream().anyMatch(entry -> !entry.inFlight
+                && entry.mutation.type() == PermitMutation.Type.CREATE_RESOURCE_INSTANCE
+                && entry.mutation.resource().equals(resource));
+        if (!createPending) {
+            return false;
+        }
+        var iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (!entry.inFlight && (entry.mutation.references(resource) || entry.mutation.partition().equals(resource))) {
+                iterator.remove();
+                journal.acknowledged(entry.mutation.sequence());
+                if (entry.mutation.grant() != null) {
+                    localGrants.revoke(entry.mutation.grant());
+                }
+                coalesced.incrementAndGet();
+            }
+        }
+        changed.signalAll();
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                var batch = drain();
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                var partitions = batch.stream().collect(Collectors.groupingBy(PermitMutation::partition, LinkedHashMap::new, Collectors.toList()));
+                try {
+                    var futures = partitions.values().stream()
+                            .map(mutations -> CompletableFuture.runAsync(() -> applyInOrder(mutations), permitExecutor))
+                            .toArray(CompletableFuture[]::new);
+                    CompletableFuture.allOf(futures).join();
+                } finally {
+                    release(batch);
+                }
+                // One sync for the batch's acknowledgements
+                journal.sync(journal.appended());
+                compactIfIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Permit outbox worker failed", e);
+            }
+        }
+    }
+
+    private List<PermitMutation> drain() throws InterruptedException {
+        lock.lock();
+        try {
+            var batch = new ArrayList<PermitMutation>();
+            var blocked = new HashSet<String>();
+            long now = System.currentTimeMillis();
+            for (var entry : pending.values()) {
+                if (batch.size() >= config.getBatchSize()) {
+                    break;
+                }
+                var partition = entry.mutation.partition();
+                if (blocked.contains(partition)) {
+                    continue;
+                }
+                if (entry.notBefore > now) {
+                    // Keep the partition in order behind the entry that is backing off
+                    blocked.add(partition);
+                    continue;
+                }
+                entry.inFlight = true;
+                batch.add(entry.mutation);
+            }
+            if (batch.isEmpty()) {
+                changed.await(config.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyInOrder(List<PermitMutation> mutations) {
+        for (var mutation : mutations) {
+            try {
+                dispatcher.apply(mutation);
+            } catch (Exception e) {
+                // The rest of the partition stays pending behind this entry
+                retryLater(mutation, e);
+                return;
+            }
+            complete(mutation);
+            applied.incrementAndGet();
+        }
+    }
+
+    private void complete(PermitMutation mutation) {
+        lock.lock();
+        try {
+            pending.remove(mutation.sequence());
+            journal.acknowledged(mutation.sequence());
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (mutation.grant() != null) {
+            localGrants.release(mutation.grant());
+        }
+        invalidate(mutation);
+    }
+
+    private void retryLater(PermitMutation mutation, Exception error) {
+        lock.lock();
+        try {
+            var entry = pending.get(mutation.sequence());
+            entry.attempts++;
+            if (entry.attempts >= config.getMaxAttempts()) {
+                logger.error("Giving up on {} for {} after {} attempts", mutation.type(), mutation.resource(), entry.attempts, error);
+                failed.incrementAndGet();
+                pending.remove(mutation.sequence());
+                journal.acknowledged(mutation.sequence());
+                if (mutation.grant() != null) {
+                    localGrants.revoke(mutation.grant());
+                }
+            } else {
+                long backoff = config.getRetryBackoff().toMillis() << Math.min(entry.attempts - 1, 6);
+                logger.warn("Failed to apply {} for {} (attempt {}), retrying in {}ms: {}", mutation.type(), mutation.resource(), entry.attempts, backoff, error.getMessage());
+                entry.notBefore = System.currentTimeMillis() + backoff;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands entries that were drained but not acknowledged back to the next drain.
+     */
+    private void release(List<PermitMutation> batch) {
+        lock.lock();
+        try {
+            for (var mutation : batch) {
+                var entry = pending.get(mutation.sequence());
+                if (entry != null) {
+                    entry.inFlight = false;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void compactIfIdle() throws IOException {
+        lock.lock();
+        try {
+            if (pending.isEmpty() && journal.size() > config.getCompactionThreshold()) {
+                journal.compact(List.of());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(PermitMutation mutation) {
+        decisionCache.invalidateResource(mutation.resourceType(), mutation.resourceKey());
+        if (mutation.grant() != null) {
+            var resource = mutation.grant().resource();
+            decisionCache.invalidateResource(resource.substring(0, resource.indexOf(':')), resource.substring(resource.indexOf(':') + 1));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks striped by blog id, held while a change to a blog is applied. Changes to different blogs
+ * rarely share a stripe, and unlike a monitor a lock does not pin a virtual thread. Whoever holds
+ * several stripes takes them in index order, so two of them never wait on each other.
+ */
+final class BlogLocks {
+    private final Lock[] stripes;
+
+    BlogLocks() {
+        // A power of two at least 16 per core, so distinct blogs rarely collide
+        this.stripes = new Lock[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 16 - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    Lock of(int blogId) {
+        return stripes[index(blogId)];
+    }
+
+    /**
+     * Locks the stripes of all {@code blogs}, and returns them for {@link #unlock}.
+     */
+    List<Lock> lock(List<Blog> blogs) {
+        var held = new ArrayList<Lock>();
+        blogs.stream().mapToInt(blog -> index(blog.getId())).distinct().sorted().forEach(index -> {
+            stripes[index].lock();
+            held.add(stripes[index]);
+        });
+        return held;
+    }
+
+    /**
+     * Locks every stripe, which waits for every change in progress, and returns them for
+     * {@link #unlock}.
+     */
+    List<Lock> lockAll() {
+        for (var stripe : stripes) {
+            stripe.lock();
+        }
+        return List.of(stripes);
+    }
+
+    static void unlock(List<Lock> held) {
+        held.forEach(Lock::unlock);
+    }
+
+    private int index(int blogId) {
+        return blogId & (stripes.length - 1);
+    }
+}
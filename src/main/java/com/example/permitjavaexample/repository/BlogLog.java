@@ -0,0 +1,259 @@
+package com.example.permitjavaexample.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of {@link BlogLogRecord}s, split into memory-mapped segment files.
+ * <p>
+ * Callers encode their record and hand it to a single committer thread, which copies whole
+ * batches into the mapped segment and forces them to disk once per batch (group commit), so
+ * concurrent writers share one sync instead of queueing for their own. Each record is framed as
+ * {@code [length][crc32c][payload]}; replay stops at the first empty or damaged frame.
+ */
+class BlogLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(BlogLog.class);
+    private static final int FRAME_HEADER = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private record Pending(byte[] record, CompletableFuture<Void> written) {
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final LongConsumer onRoll;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean running = true;
+    private volatile boolean rollRequested;
+
+    // Only touched by the committer thread once open
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long appendedSinceRoll;
+
+    private BlogLog(Path directory, long segmentSize, boolean fsync, int maxBatch, LongConsumer onRoll) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+        this.onRoll = onRoll;
+        this.committer = new Thread(this::commitLoop, "blog-log-committer");
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Replays every record in segments numbered {@code fromSegment} and up, then opens the last
+     * one for appending. {@code onRoll} is called on the committer thread with the number of the
+     * new segment each time the log rolls over.
+     */
+    static BlogLog open(Path directory, long fromSegment, long segmentSize, boolean fsync, int maxBatch,
+                        Consumer<BlogLogRecord> replay, LongConsumer onRoll) throws IOException {
+        Files.createDirectories(directory);
+        var log = new BlogLog(directory, segmentSize, fsync, maxBatch, onRoll);
+        var segments = segments(directory).stream().filter(number -> number >= fromSegment).toList();
+        for (int i = 0; i < segments.size(); i++) {
+            log.map(segments.get(i), 0);
+            log.replay(replay);
+            if (i < segments.size() - 1) {
+                log.channel.close();
+            }
+        }
+        if (segments.isEmpty()) {
+            log.map(fromSegment, 0);
+        }
+        log.committer.start();
+        return log;
+    }
+
+    /**
+     * Queues a record; the returned future completes once it is durable.
+     */
+    CompletableFuture<Void> append(BlogLogRecord record) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("Blog log is closed"));
+        }
+        var pending = new Pending(record.encode(), new CompletableFuture<>());
+        queue.add(pending);
+        return pending.written();
+    }
+
+    /**
+     * Starts a new segment at the next commit if anything was appended since the last roll.
+     */
+    void requestRoll() {
+        rollRequested = true;
+    }
+
+    /**
+     * Deletes segments that are fully covered by a snapshot.
+     */
+    void deleteSegmentsBefore(long segment) throws IOException {
+        for (var number : segments(directory)) {
+            if (number < segment) {
+                Files.deleteIfExists(segmentPath(directory, number));
+            }
+        }
+    }
+
+    private void commitLoop() {
+        var batch = new ArrayList<Pending>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (rollRequested) {
+                    rollRequested = false;
+                    if (appendedSinceRoll > 0) {
+                        roll(0);
+                    }
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to write blog log batch", e);
+                batch.forEach(pending -> pending.written().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) throws IOException {
+        int dirtyFrom = buffer.position();
+        for (var pending : batch) {
+            int frame = FRAME_HEADER + pending.record().length;
+            if (buffer.remaining() < frame) {
+                force(dirtyFrom);
+                roll(frame);
+                dirtyFrom = 0;
+            }
+            write(pending.record());
+        }
+        force(dirtyFrom);
+        batch.forEach(pending -> pending.written().complete(null));
+    }
+
+    private void write(byte[] record) {
+        int start = buffer.position();
+        var crc = new CRC32C();
+        crc.update(record);
+        // Payload first and length last, so a frame only becomes visible once it is complete
+        buffer.put(start + FRAME_HEADER, record);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, record.length);
+        buffer.position(start + FRAME_HEADER + record.length);
+        appendedSinceRoll++;
+    }
+
+    private void force(int from) {
+        if (fsync && buffer.position() > from) {
+            buffer.force(from, buffer.position() - from);
+        }
+    }
+
+    private void roll(int minimumSize) throws IOException {
+        channel.close();
+        long next = segment + 1;
+        map(next, minimumSize);
+        appendedSinceRoll = 0;
+        onRoll.accept(next);
+    }
+
+    private void map(long number, int minimumSize) throws IOException {
+        var path = segmentPath(directory, number);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(Math.max(segmentSize, minimumSize + FRAME_HEADER), channel.size());
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment = number;
+    }
+
+    private void replay(Consumer<BlogLogRecord> replay) {
+        while (buffer.remaining() >= FRAME_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length == 0) {
+                return;
+            }
+            if (length < 0 || length > buffer.remaining() - FRAME_HEADER || !checksumMatches(start, length)) {
+                // A torn write from a batch that was never acknowledged; drop it and anything after it
+                logger.warn("Truncating blog log segment {} at offset {}", segment, start);
+                while (buffer.hasRemaining()) {
+                    buffer.put((byte) 0);
+                }
+                buffer.position(start);
+                return;
+            }
+            replay.accept(BlogLogRecord.decode(buffer.slice(start + FRAME_HEADER, length)));
+            buffer.position(start + FRAME_HEADER + length);
+            appendedSinceRoll++;
+        }
+    }
+
+    private boolean checksumMatches(int start, int length) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(start + FRAME_HEADER, length));
+        return (int) crc.getValue() == buffer.getInt(start + 4);
+    }
+
+    private static List<Long> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending late;
+        while ((late = queue.poll()) != null) {
+            late.written().completeExceptionally(new IOException("Blog log is closed"));
+        }
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One blog or comment change in the {@link BlogLog}. Every record carries the complete new state
+ * of what it touches, so replaying a record that is already reflected in a snapshot is harmless.
+ */
+record BlogLogRecord(Type type, int blogId, int commentId, String author, String content) {
+    enum Type {
+        BLOG_CREATED(1),
+        BLOG_UPDATED(2),
+        BLOG_DELETED(3),
+        COMMENT_ADDED(4),
+        COMMENT_UPDATED(5),
+        COMMENT_DELETED(6);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type of(byte code) {
+            for (var type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown blog log record type " + code);
+        }
+    }
+
+    static BlogLogRecord blogCreated(Blog blog) {
+        return new BlogLogRecord(Type.BLOG_CREATED, blog.getId(), 0, blog.getAuthor(), blog.getContent());
+    }
+
+    static BlogLogRecord blogUpdated(Blog blog, String content) {
+        return new BlogLogRecord(Type.BLOG_UPDATED, blog.getId(), 0, null, content);
+    }
+
+    static BlogLogRecord blogDeleted(int blogId) {
+        return new BlogLogRecord(Type.BLOG_DELETED, blogId, 0, null, null);
+    }
+
+    static BlogLogRecord commentAdded(Blog blog, Comment comment) {
+        return new BlogLogRecord(Type.COMMENT_ADDED, blog.getId(), comment.getId(), comment.getAuthor(), comment.getContent());
+    }
+
+    static BlogLogRecord commentUpdated(Blog blog, Comment comment, String content) {
+        return new BlogLogRecord(Type.COMMENT_UPDATED, blog.getId(), comment.getId(), null, content);
+    }
+
+    static BlogLogRecord commentDeleted(Blog blog, int commentId) {
+        return new BlogLogRecord(Type.COMMENT_DELETED, blog.getId(), commentId, null, null);
+    }
+
+    byte[] encode() {
+        var authorBytes = author == null ? null : author.getBytes(StandardCharsets.UTF_8);
+        var contentBytes = content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.allocate(1 + 4 + 4 + length(authorBytes) + length(contentBytes));
+        buffer.put(type.code).putInt(blogId).putInt(commentId);
+        putBytes(buffer, authorBytes);
+        putBytes(buffer, contentBytes);
+        return buffer.array();
+    }
+
+    static BlogLogRecord decode(ByteBuffer buffer) {
+        var type = Type.of(buffer.get());
+        int blogId = buffer.getInt();
+        int commentId = buffer.getInt();
+        return new BlogLogRecord(type, blogId, commentId, getString(buffer), getString(buffer));
+    }
+
+    private static int length(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
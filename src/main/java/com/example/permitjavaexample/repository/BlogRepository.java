@@ -0,0 +1,67 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BlogRepository {
+    Optional<Blog> findById(int id);
+
+    List<Blog> findAll();
+
+    List<Blog> findByAuthor(String author);
+
+    /**
+     * Up to {@code limit} blogs with an id greater than {@code afterId}, in id order.
+     */
+    List<Blog> findPage(int afterId, int limit);
+
+    /**
+     * Up to {@code limit} blogs by {@code author} with an id greater than {@code afterId}, in id order.
+     */
+    List<Blog> findPageByAuthor(String author, int afterId, int limit);
+
+    void save(Blog blog);
+
+    /**
+     * Saves many new blogs, together with their comments.
+     */
+    default void saveAll(List<Blog> blogs) {
+        blogs.forEach(this::save);
+    }
+
+    void updateContent(Blog blog, String content);
+
+    void addComment(Blog blog, Comment comment);
+
+    void updateComment(Blog blog, Comment comment, String content);
+
+    Optional<Comment> removeComment(Blog blog, int commentId);
+
+    Optional<Blog> deleteById(int id);
+
+    int count();
+
+    /**
+     * Changes whenever a blog or comment in the store is created, changed or deleted.
+     */
+    long version();
+
+    /**
+     * Blogs and comments matching any term of {@code query}, best first, skipping the first
+     * {@code offset}. A term ending in {@code *} matches as a prefix.
+     */
+    List<SearchHit> search(String query, int offset, int limit);
+
+    /**
+     * The highest blog id ever stored, including deleted blogs, so ids are never reused.
+     */
+    int lastBlogId();
+
+    /**
+     * The highest comment id ever stored, including deleted comments.
+     */
+    int lastCommentId();
+}
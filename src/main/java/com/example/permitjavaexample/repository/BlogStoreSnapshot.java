@@ -0,0 +1,106 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compacted copy of every blog and comment, plus the highest ids ever handed out. Replay resumes
+ * from {@code replayFrom}, the first log segment the snapshot may not fully cover.
+ */
+record BlogStoreSnapshot(long replayFrom, int lastBlogId, int lastCommentId, List<Blog> blogs) {
+    private static final int MAGIC = 0x424c4f47;
+    private static final int VERSION = 1;
+    private static final String FILE = "snapshot.dat";
+
+    static Optional<BlogStoreSnapshot> read(Path directory, String tenant) throws IOException {
+        var path = directory.resolve(FILE);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unrecognized blog store snapshot " + path);
+            }
+            long replayFrom = in.readLong();
+            int lastBlogId = in.readInt();
+            int lastCommentId = in.readInt();
+            int blogCount = in.readInt();
+            var blogs = new ArrayList<Blog>(blogCount);
+            for (int i = 0; i < blogCount; i++) {
+                var blog = new Blog(in.readInt(), tenant, readString(in), readString(in));
+                int commentCount = in.readInt();
+                for (int j = 0; j < commentCount; j++) {
+                    blog.addComment(new Comment(in.readInt(), tenant, readString(in), readString(in)));
+                }
+                blogs.add(blog);
+            }
+            return Optional.of(new BlogStoreSnapshot(replayFrom, lastBlogId, lastCommentId, blogs));
+        }
+    }
+
+    /**
+     * Writes the snapshot next to the live one and swaps it in atomically.
+     */
+    static void write(Path directory, long replayFrom, int lastBlogId, int lastCommentId, Collection<Blog> blogs) throws IOException {
+        var temp = directory.resolve(FILE + ".tmp");
+        try (var channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(replayFrom);
+            out.writeInt(lastBlogId);
+            out.writeInt(lastCommentId);
+            out.writeInt(blogs.size());
+            for (var blog : blogs) {
+                out.writeInt(blog.getId());
+                writeString(out, blog.getAuthor());
+                writeString(out, blog.getContent());
+                var comments = blog.getComments();
+                out.writeInt(comments.size());
+                for (var comment : comments) {
+                    out.writeInt(comment.getId());
+                    writeString(out, comment.getAuthor());
+                    writeString(out, comment.getContent());
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * {@link InMemoryBlogRepository} backed by a {@link BlogLog}. A change is written to the log
+ * first and only applied in memory once its group commit has completed, so a failed write leaves
+ * nothing behind that a restart would lose. The blog's lock is held throughout, so the log order
+ * matches the order in which concurrent changes to one blog took effect. The locks are the
+ * in-memory store's {@link BlogLocks}: changes to different blogs rarely share a stripe and so
+ * still share group commits.
+ * <p>
+ * On startup the latest snapshot is loaded and the log segments after it are replayed. Each time
+ * the log rolls over to a new segment, a fresh snapshot is written in the background and the
+ * segments it covers are deleted.
+ */
+public class DurableBlogRepository implements BlogRepository, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(DurableBlogRepository.class);
+
+    private final InMemoryBlogRepository blogs = new InMemoryBlogRepository();
+    private final BlogLocks locks = blogs.locks();
+    private final Path directory;
+    private final String tenant;
+    private final BlogLog log;
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "blog-store-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DurableBlogRepository(StoreProperties properties) throws IOException {
+        this(properties, Path.of(properties.getDirectory()), Blog.DEFAULT_TENANT);
+    }
+
+    /**
+     * A store for one tenant's blogs in {@code directory}, with the other settings from
+     * {@code properties}.
+     */
+    public DurableBlogRepository(StoreProperties properties, Path directory, String tenant) throws IOException {
+        this.directory = directory;
+        this.tenant = tenant;
+        long started = System.nanoTime();
+        long replayFrom = 1;
+        var snapshot = BlogStoreSnapshot.read(directory, tenant);
+        if (snapshot.isPresent()) {
+            snapshot.get().blogs().forEach(blogs::save);
+            blogs.recordIds(snapshot.get().lastBlogId(), snapshot.get().lastCommentId());
+            replayFrom = snapshot.get().replayFrom();
+        }
+        this.log = BlogLog.open(directory, replayFrom, properties.getSegmentSize(), properties.isFsync(), properties.getMaxBatch(),
+                this::replay, this::scheduleSnapshot);
+        logger.info("Loaded {} blogs from {} in {}ms", blogs.count(), directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshots.scheduleWithFixedDelay(log::requestRoll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void replay(BlogLogRecord record) {
+        blogs.recordIds(record.blogId(), record.commentId());
+        switch (record.type()) {
+            case BLOG_CREATED -> blogs.save(new Blog(record.blogId(), tenant, record.author(), record.content()));
+            case BLOG_UPDATED -> blogs.findById(record.blogId()).ifPresent(blog -> blogs.updateContent(blog, record.content()));
+            case BLOG_DELETED -> blogs.deleteById(record.blogId());
+            case COMMENT_ADDED -> blogs.findById(record.blogId()).ifPresent(blog -> {
+                blogs.removeComment(blog, record.commentId());
+                blogs.addComment(blog, new Comment(record.commentId(), tenant, record.author(), record.content()));
+            });
+            case COMMENT_UPDATED -> blogs.findById(record.blogId())
+                    .ifPresent(blog -> blog.findComment(record.commentId())
+                            .ifPresent(comment -> blogs.updateComment(blog, comment, record.content())));
+            case COMMENT_DELETED -> blogs.findById(record.blogId()).ifPresent(blog -> blogs.removeComment(blog, record.commentId()));
+        }
+    }
+
+    private void scheduleSnapshot(long replayFrom) {
+        snapshots.execute(() -> {
+            try {
+                // Every change logged before the roll is applied once no writer holds a stripe
+                List<Blog> all;
+                int lastBlogId;
+                int lastCommentId;
+                var held = locks.lockAll();
+                try {
+                    all = blogs.findAll();
+                    lastBlogId = blogs.lastBlogId();
+                    lastCommentId = blogs.lastCommentId();
+                } finally {
+                    BlogLocks.unlock(held);
+                }
+                BlogStoreSnapshot.write(directory, replayFrom, lastBlogId, lastCommentId, all);
+                log.deleteSegmentsBefore(replayFrom);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to write blog store snapshot", e);
+            }
+        });
+    }
+
+    @Override
+    public Optional<Blog> findById(int id) {
+        return blogs.findById(id);
+    }
+
+    @Override
+    public List<Blog> findAll() {
+        return blogs.findAll();
+    }
+
+    @Override
+    public List<Blog> findByAuthor(String author) {
+        return blogs.findByAuthor(author);
+    }
+
+    @Override
+    public List<Blog> findPage(int afterId, int limit) {
+        return blogs.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Blog> findPageByAuthor(String author, int afterId, int limit) {
+        return blogs.findPageByAuthor(author, afterId, limit);
+    }
+
+    @Override
+    public void save(Blog blog) {
+        var lock = lock(blog.getId());
+        lock.lock();
+        try {
+            CompletableFuture<Void> written = log.append(BlogLogRecord.blogCreated(blog));
+            for (var comment : blog.getComments()) {
+                written = log.append(BlogLogRecord.commentAdded(blog, comment));
+            }
+            await(written);
+            blogs.save(blog);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues every record before waiting, so the whole batch shares a few group commits instead
+     * of paying for one per blog. The stripes of all the blogs are held from the first append
+     * until they are applied, like a single change, so a snapshot never misses logged blogs.
+     */
+    @Override
+    public void saveAll(List<Blog> blogs) {
+        var held = locks.lock(blogs);
+        try {
+            var written = new ArrayList<CompletableFuture<Void>>();
+            for (var blog : blogs) {
+                written.add(log.append(BlogLogRecord.blogCreated(blog)));
+                for (var comment : blog.getComments()) {
+                    written.add(log.append(BlogLogRecord.commentAdded(blog, comment)));
+                }
+            }
+            await(CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)));
+            blogs.forEach(this.blogs::save);
+        } finally {
+            BlogLocks.unlock(held);
+        }
+    }
+
+    @Override
+    public void updateContent(Blog blog, String content) {
+        var lock = lock(blog.getId());
+        lock.lock();
+        try {
+            await(log.append(BlogLogRecord.blogUpdated(blog, content)));
+            blogs.updateContent(blog, content);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addComment(Blog blog, Comment comment) {
+        var lock = lock(blog.getId());
+        lock.lock();
+        try {
+            await(log.append(BlogLogRecord.commentAdded(blog, comment)));
+            blogs.addComment(blog, comment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateComment(Blog blog, Comment comment, String content) {
+        var lock = lock(blog.getId());
+        lock.lock();
+        try {
+            await(log.append(BlogLogRecord.commentUpdated(blog, comment, content)));
+            blogs.updateComment(blog, comment, content);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Comment> removeComment(Blog blog, int commentId) {
+        var lock = lock(blog.getId());
+        lock.lock();
+        try {
+            if (blog.findComment(commentId).isEmpty()) {
+                return Optional.empty();
+            }
+            await(log.append(BlogLogRecord.commentDeleted(blog, commentId)));
+            return blogs.removeComment(blog, commentId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Blog> deleteById(int id) {
+        var lock = lock(id);
+        lock.lock();
+        try {
+            if (blogs.findById(id).isEmpty()) {
+                return Optional.empty();
+            }
+            await(log.append(BlogLogRecord.blogDeleted(id)));
+            return blogs.deleteById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int count() {
+        return blogs.count();
+    }
+
+    @Override
+    public long version() {
+        return blogs.version();
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int offset, int limit) {
+        return blogs.search(query, offset, limit);
+    }
+
+    @Override
+    public int lastBlogId() {
+        return blogs.lastBlogId();
+    }
+
+    @Override
+    public int lastCommentId() {
+        return blogs.lastCommentId();
+    }
+
+    private Lock lock(int blogId) {
+        return locks.of(blogId);
+    }
+
+    private static void await(CompletableFuture<Void> written) {
+        if (written == null) {
+            return;
+        }
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to persist blog change", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
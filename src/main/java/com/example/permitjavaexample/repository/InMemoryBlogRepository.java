@@ -0,0 +1,217 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Blogs held in memory, with a search index over them. Each change to a blog is applied together
+ * with its index update under the blog's lock, so concurrent changes to one blog leave the index
+ * on the content that won.
+ */
+public class InMemoryBlogRepository implements BlogRepository {
+    private final Map<Integer, Blog> blogs = new ConcurrentHashMap<>();
+    private final NavigableSet<Integer> blogIds = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<Integer>> blogIdsByAuthor = new ConcurrentHashMap<>();
+    private final AtomicInteger lastBlogId = new AtomicInteger();
+    private final AtomicInteger lastCommentId = new AtomicInteger();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final AtomicLong version = new AtomicLong();
+    private final BlogLocks locks = new BlogLocks();
+
+    @Override
+    public Optional<Blog> findById(int id) {
+        return Optional.ofNullable(blogs.get(id));
+    }
+
+    @Override
+    public List<Blog> findAll() {
+        return blogIds.stream().map(blogs::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Blog> findByAuthor(String author) {
+        var ids = blogIdsByAuthor.get(author);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().map(blogs::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Blog> findPage(int afterId, int limit) {
+        return page(blogIds, afterId, limit);
+    }
+
+    @Override
+    public List<Blog> findPageByAuthor(String author, int afterId, int limit) {
+        var ids = blogIdsByAuthor.get(author);
+        return ids == null ? List.of() : page(ids, afterId, limit);
+    }
+
+    private List<Blog> page(NavigableSet<Integer> ids, int afterId, int limit) {
+        var result = new ArrayList<Blog>(Math.min(limit, 256));
+        for (var id : ids.tailSet(afterId, false)) {
+            if (result.size() == limit) {
+                break;
+            }
+            var blog = blogs.get(id);
+            if (blog != null) {
+                result.add(blog);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void save(Blog blog) {
+        var lock = locks.of(blog.getId());
+        lock.lock();
+        try {
+            blogs.put(blog.getId(), blog);
+            blogIds.add(blog.getId());
+            lastBlogId.accumulateAndGet(blog.getId(), Math::max);
+            searchIndex.indexBlog(blog.getId(), blog.getContent());
+            blog.getComments().forEach(comment -> {
+                lastCommentId.accumulateAndGet(comment.getId(), Math::max);
+                searchIndex.indexComment(blog.getId(), comment.getId(), comment.getContent());
+            });
+            blogIdsByAuthor.compute(blog.getAuthor(), (author, ids) -> {
+                if (ids == null) {
+                    ids = new ConcurrentSkipListSet<>();
+                }
+                ids.add(blog.getId());
+                return ids;
+            });
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateContent(Blog blog, String content) {
+        var lock = locks.of(blog.getId());
+        lock.lock();
+        try {
+            blog.setContent(content);
+            searchIndex.indexBlog(blog.getId(), content);
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addComment(Blog blog, Comment comment) {
+        var lock = locks.of(blog.getId());
+        lock.lock();
+        try {
+            blog.addComment(comment);
+            lastCommentId.accumulateAndGet(comment.getId(), Math::max);
+            searchIndex.indexComment(blog.getId(), comment.getId(), comment.getContent());
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateComment(Blog blog, Comment comment, String content) {
+        var lock = locks.of(blog.getId());
+        lock.lock();
+        try {
+            blog.updateComment(comment, content);
+            searchIndex.indexComment(blog.getId(), comment.getId(), content);
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Comment> removeComment(Blog blog, int commentId) {
+        var lock = locks.of(blog.getId());
+        lock.lock();
+        try {
+            var removed = blog.removeComment(commentId);
+            removed.ifPresent(comment -> {
+                searchIndex.removeComment(commentId);
+                version.incrementAndGet();
+            });
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Blog> deleteById(int id) {
+        var lock = locks.of(id);
+        lock.lock();
+        try {
+            var blog = blogs.remove(id);
+            if (blog == null) {
+                return Optional.empty();
+            }
+            blogIds.remove(id);
+            searchIndex.removeBlog(id);
+            blog.getComments().forEach(comment -> searchIndex.removeComment(comment.getId()));
+            blogIdsByAuthor.computeIfPresent(blog.getAuthor(), (author, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+            version.incrementAndGet();
+            return Optional.of(blog);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int count() {
+        return blogs.size();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int offset, int limit) {
+        return searchIndex.search(query, offset, limit);
+    }
+
+    @Override
+    public int lastBlogId() {
+        return lastBlogId.get();
+    }
+
+    @Override
+    public int lastCommentId() {
+        return lastCommentId.get();
+    }
+
+    BlogLocks locks() {
+        return locks;
+    }
+
+    /**
+     * Raises the recorded highest ids, for ids recovered from outside this repository.
+     */
+    void recordIds(int blogId, int commentId) {
+        lastBlogId.accumulateAndGet(blogId, Math::max);
+        lastCommentId.accumulateAndGet(commentId, Math::max);
+    }
+}
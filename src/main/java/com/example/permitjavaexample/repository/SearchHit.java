@@ -0,0 +1,7 @@
+package com.example.permitjavaexample.repository;
+
+/**
+ * A blog, or with a {@code commentId} one of its comments, matching a search.
+ */
+public record SearchHit(int blogId, Integer commentId, double score) {
+}
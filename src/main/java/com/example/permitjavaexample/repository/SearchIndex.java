@@ -0,0 +1,212 @@
+package com.example.permitjavaexample.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inverted index over blog and comment content, ranked with BM25. Every blog and every comment is
+ * a document of its own. Changes are applied per document: the terms a document was indexed
+ * under are kept with it, so re-indexing only touches the postings that actually change.
+ */
+class SearchIndex {
+    // Bounds the work of a short prefix such as "a*"
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private record Document(int blogId, Integer commentId, Map<String, Integer> frequencies, int length) {
+    }
+
+    private record Posting(int frequency, int length) {
+    }
+
+    private record Scored(long key, double score) {
+    }
+
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score).thenComparingLong(Scored::key);
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Posting>> postings = new ConcurrentHashMap<>();
+    // Sorted copy of the postings' terms for prefix lookups, only changed while holding the term's postings entry
+    private final NavigableSet<String> terms = new ConcurrentSkipListSet<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    void indexBlog(int blogId, String content) {
+        index(blogKey(blogId), blogId, null, content);
+    }
+
+    void indexComment(int blogId, int commentId, String content) {
+        index(commentKey(commentId), blogId, commentId, content);
+    }
+
+    void removeBlog(int blogId) {
+        remove(blogKey(blogId));
+    }
+
+    void removeComment(int commentId) {
+        remove(commentKey(commentId));
+    }
+
+    private static long blogKey(int blogId) {
+        return (long) blogId << 1;
+    }
+
+    private static long commentKey(int commentId) {
+        return (long) commentId << 1 | 1;
+    }
+
+    private void index(long key, int blogId, Integer commentId, String content) {
+        var frequencies = new HashMap<String, Integer>();
+        var tokens = tokenize(content);
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        var document = new Document(blogId, commentId, frequencies, tokens.size());
+        // compute keeps concurrent changes to the same document in order
+        documents.compute(key, (ignored, previous) -> {
+            if (previous != null) {
+                unpost(key, previous);
+            }
+            post(key, document);
+            return document;
+        });
+    }
+
+    private void remove(long key) {
+        documents.computeIfPresent(key, (ignored, previous) -> {
+            unpost(key, previous);
+            return null;
+        });
+    }
+
+    private void post(long key, Document document) {
+        totalLength.addAndGet(document.length());
+        document.frequencies().forEach((term, frequency) -> postings.compute(term, (ignored, docs) -> {
+            if (docs == null) {
+                docs = new ConcurrentHashMap<>();
+                terms.add(term);
+            }
+            docs.put(key, new Posting(frequency, document.length()));
+            return docs;
+        }));
+    }
+
+    private void unpost(long key, Document document) {
+        totalLength.addAndGet(-document.length());
+        document.frequencies().keySet().forEach(term -> postings.computeIfPresent(term, (ignored, docs) -> {
+            docs.remove(key);
+            if (docs.isEmpty()) {
+                terms.remove(term);
+                return null;
+            }
+            return docs;
+        }));
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        var tokens = new ArrayList<String>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Documents matching any term of {@code query}, best first, skipping the first {@code offset}.
+     * A term ending in {@code *} matches every indexed term it prefixes.
+     */
+    List<SearchHit> search(String query, int offset, int limit) {
+        var scores = new HashMap<Long, Double>();
+        int documentCount = Math.max(1, documents.size());
+        double averageLength = Math.max(1.0, (double) totalLength.get() / documentCount);
+        for (var matched : queryTerms(query)) {
+            var docs = postings.get(matched);
+            if (docs == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            docs.forEach((key, posting) -> {
+                double norm = K1 * (1 - B + B * posting.length() / averageLength);
+                scores.merge(key, idf * posting.frequency() * (K1 + 1) / (posting.frequency() + norm), Double::sum);
+            });
+        }
+        return top(scores, offset, limit);
+    }
+
+    /**
+     * The indexed terms to look up for {@code query}. Only the last token of a word ending in
+     * {@code *} is a prefix, so {@code "e-ma*"} looks up {@code e} and every term starting with
+     * {@code ma}.
+     */
+    private List<String> queryTerms(String query) {
+        var matched = new ArrayList<String>();
+        for (var word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            var tokens = tokenize(prefix ? word.substring(0, word.length() - 1) : word);
+            if (prefix && !tokens.isEmpty()) {
+                matched.addAll(tokens.subList(0, tokens.size() - 1));
+                matched.addAll(expand(tokens.get(tokens.size() - 1)));
+            } else {
+                matched.addAll(tokens);
+            }
+        }
+        return matched;
+    }
+
+    private List<String> expand(String prefix) {
+        var matched = new ArrayList<String>();
+        for (var term : terms.tailSet(prefix)) {
+            if (!term.startsWith(prefix) || matched.size() == MAX_PREFIX_TERMS) {
+                break;
+            }
+            matched.add(term);
+        }
+        return matched;
+    }
+
+    private List<SearchHit> top(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        var best = new PriorityQueue<>(RANKING);
+        scores.forEach((key, score) -> {
+            if (best.size() < wanted) {
+                best.add(new Scored(key, score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new Scored(key, score));
+            }
+        });
+        var ranked = new ArrayList<>(best);
+        ranked.sort(RANKING.reversed());
+        var hits = new ArrayList<SearchHit>(Math.min(limit, ranked.size()));
+        for (var scored : ranked.subList(Math.min(offset, ranked.size()), ranked.size())) {
+            var document = documents.get(scored.key());
+            if (document != null) {
+                hits.add(new SearchHit(document.blogId(), document.commentId(), scored.score()));
+            }
+        }
+        return hits;
+    }
+}
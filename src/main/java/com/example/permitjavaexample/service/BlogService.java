@@ -1,154 +1,397 @@
 package com.example.permitjavaexample.service;
 
+import com.example.permitjavaexample.authorization.AuthorizationRequest;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.LocalGrant;
+import com.example.permitjavaexample.exception.BadRequestException;
 import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.feed.ChangeFeed;
+import com.example.permitjavaexample.feed.Subscription;
 import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.BlogPage;
+import com.example.permitjavaexample.model.BlogView;
+import com.example.permitjavaexample.model.ChangeEvent;
 import com.example.permitjavaexample.model.Comment;
-import io.permit.sdk.Permit;
-import io.permit.sdk.api.PermitApiError;
-import io.permit.sdk.api.PermitContextError;
+import com.example.permitjavaexample.model.SearchResult;
+import com.example.permitjavaexample.outbox.PermitMutation;
+import com.example.permitjavaexample.outbox.PermitOutbox;
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.SearchHit;
+import com.example.permitjavaexample.tenant.TenantShards;
 import io.permit.sdk.enforcement.Resource;
 import io.permit.sdk.enforcement.User;
-import io.permit.sdk.openapi.models.RelationshipTupleCreate;
-import io.permit.sdk.openapi.models.ResourceInstanceCreate;
-import io.permit.sdk.openapi.models.RoleAssignmentCreate;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Blogs and comments of every tenant. Each tenant's blogs live in their own store shard, and
+ * their Permit resources are created in, and checked against, that tenant.
+ */
 @Service
 public class BlogService {
-    private final List<Blog> blogs = new ArrayList<>();
-    private final AtomicInteger blogIdCounter = new AtomicInteger();
-    private final AtomicInteger commentIdCounter = new AtomicInteger();
+    private static final Map<String, Resource> TYPE_RESOURCES = new ConcurrentHashMap<>();
+    public static final int MAX_PAGE_SIZE = 500;
+    // Candidates authorized per round of a page, and at most per request
+    static final int PAGE_SCAN_BATCH = 100;
+    static final int MAX_PAGE_SCAN = 10 * MAX_PAGE_SIZE;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    // Matches ranked below this are never authorized, however few of the better ones are readable
+    private static final int MAX_SEARCH_CANDIDATES = 1000;
+    // Ranked matches authorized per bulk check, whatever the limit
+    static final int SEARCH_AUTHORIZE_BATCH = MAX_SEARCH_RESULTS;
+
+    private final TenantShards shards;
+    private final AtomicInteger blogIdCounter;
+    private final AtomicInteger commentIdCounter;
 
-    private final Resource.Builder blogResourceBuilder = new Resource.Builder("blog");
-    private final Resource.Builder commentResourceBuilder = new Resource.Builder("comment");
     private final UserService userService;
-    private final Permit permit;
+    private final PermitOutbox permitOutbox;
+    private final DecisionCache decisionCache;
+    private final ChangeFeed changeFeed;
 
 
-    public BlogService(UserService userService, Permit permit) {
+    public BlogService(TenantShards shards, UserService userService, PermitOutbox permitOutbox, DecisionCache decisionCache, ChangeFeed changeFeed) {
+        this.shards = shards;
+        // Resume after the highest ids ever stored by any tenant, so Permit resource keys are never reused
+        this.blogIdCounter = new AtomicInteger(shards.lastBlogId());
+        this.commentIdCounter = new AtomicInteger(shards.lastCommentId());
         this.userService = userService;
-        this.permit = permit;
+        this.permitOutbox = permitOutbox;
+        this.decisionCache = decisionCache;
+        this.changeFeed = changeFeed;
+    }
+
+    int nextBlogId() {
+        return blogIdCounter.incrementAndGet();
+    }
+
+    int nextCommentId() {
+        return commentIdCounter.incrementAndGet();
+    }
+
+    static Resource blogType(String tenant) {
+        return typeResource("blog", tenant);
+    }
+
+    static Resource commentType(String tenant) {
+        return typeResource("comment", tenant);
+    }
+
+    private static Resource typeResource(String type, String tenant) {
+        return TYPE_RESOURCES.computeIfAbsent(type + ":" + tenant, key -> new Resource.Builder(type).withTenant(tenant).build());
+    }
+
+    BlogRepository repository(String tenant) {
+        return shards.repository(tenant);
+    }
+
+    BlogRepository readRepository(String tenant) {
+        return shards.readRepository(tenant);
+    }
+
+    /**
+     * The version of a tenant's blog store, which changes with every change to it.
+     */
+    public long storeVersion(String tenant) {
+        return readRepository(tenant).version();
     }
 
     private void authorize(User user, String action, Resource resource) {
         userService.authorize(user, action, resource);
     }
 
-    private void authorize(User user, String action, Blog blog) {
-        var attributes = new HashMap<String, Object>();
-        attributes.put("author", blog.getAuthor());
-        userService.authorize(user, action, blogResourceBuilder.withKey(blog.getId().toString()).withAttributes(attributes).build());
+    void authorize(User user, String action, Blog blog) {
+        userService.authorize(user, action, blog.toResource());
     }
 
-    private void authorize(User user, String action, Comment comment) {
-        var attributes = new HashMap<String, Object>();
-        attributes.put("author", comment.getAuthor());
-        userService.authorize(user, action, commentResourceBuilder.withKey(comment.getId().toString()).withAttributes(attributes).build());
+    void authorize(User user, String action, Comment comment) {
+        userService.authorize(user, action, comment.toResource());
     }
 
-    private Blog getBlogById(int id) {
-        return blogs.stream().filter(blog -> blog.getId().equals(id)).findFirst().orElseThrow(() -> new ResourceNotFoundException("Blog with id " + id + " not found"));
+    Blog getBlogById(String tenant, int id) {
+        return readRepository(tenant).findById(id).orElseThrow(() -> new ResourceNotFoundException("Blog with id " + id + " not found"));
     }
 
-    public List<Blog> getAllBlogs(User user) {
-        authorize(user, "read", blogResourceBuilder.build());
-        return new ArrayList<>(blogs);
+    Comment getCommentById(Blog blog, int commentId) {
+        return blog.findComment(commentId).orElseThrow(() -> new ResourceNotFoundException("Comment with id " + commentId + " not found"));
     }
 
-    public Blog getBlog(User user, int id) {
-        authorize(user, "read", blogResourceBuilder.build());
-        return getBlogById(id);
+    /**
+     * Returns up to {@code limit} readable blogs after {@code cursor}, optionally by one author.
+     * Candidates are read from the repository and authorized a batch at a time, and at most
+     * {@link #MAX_PAGE_SCAN} of them per call. A page may therefore hold fewer than {@code limit}
+     * blogs, or none, while {@code nextCursor} is set; the client carries on from there.
+     */
+    public BlogPage getBlogPage(User user, String tenant, String author, String cursor, int limit, Integer maxComments) {
+        validatePage(limit, maxComments);
+        authorize(user, "read", blogType(tenant));
+        int afterId = decodeCursor(cursor);
+        var blogRepository = readRepository(tenant);
+        var blogs = new ArrayList<BlogView>(limit);
+        int scanned = 0;
+        while (true) {
+            int wanted = limit - blogs.size();
+            int batch = Math.min(Math.max(wanted, PAGE_SCAN_BATCH), MAX_PAGE_SCAN - scanned);
+            var candidates = author == null ? blogRepository.findPage(afterId, batch) : blogRepository.findPageByAuthor(author, afterId, batch);
+            scanned += candidates.size();
+            var readable = candidates.isEmpty() ? List.<Blog>of() : userService.filter(user, "read", candidates, Blog::toResource);
+            int taken = Math.min(readable.size(), wanted);
+            blogs.addAll(views(user, readable.subList(0, taken), maxComments));
+            if (taken < readable.size()) {
+                // The batch held more readable blogs than the page has room for
+                return new BlogPage(blogs, encodeCursor(readable.get(taken - 1).getId()));
+            }
+            if (candidates.size() < batch) {
+                return new BlogPage(blogs, null);
+            }
+            afterId = candidates.get(candidates.size() - 1).getId();
+            if (blogs.size() == limit || scanned >= MAX_PAGE_SCAN) {
+                return new BlogPage(blogs, encodeCursor(afterId));
+            }
+        }
     }
 
-    public Blog addBlog(User user, String content) {
-        authorize(user, "create", blogResourceBuilder.build());
-        Blog blog = new Blog(blogIdCounter.incrementAndGet(), user.getKey(), content);
+    /**
+     * Views of blogs the user may read, each with only the comments the user may read too. The
+     * comments of all the blogs are checked together, and none are when {@code maxComments} is 0.
+     */
+    private List<BlogView> views(User user, List<Blog> blogs, Integer maxComments) {
+        var comments = blogs.stream().map(blog -> omitsComments(maxComments) ? List.<Comment>of() : blog.getComments()).toList();
+        var requests = new ArrayList<AuthorizationRequest>();
+        comments.forEach(list -> list.forEach(comment -> requests.add(new AuthorizationRequest("read", comment.toResource()))));
+        var permitted = requests.isEmpty() ? new boolean[0] : userService.authorizeAll(user, requests);
+        var views = new ArrayList<BlogView>(blogs.size());
+        int next = 0;
+        for (int i = 0; i < blogs.size(); i++) {
+            var readable = new ArrayList<Comment>(comments.get(i).size());
+            for (var comment : comments.get(i)) {
+                if (permitted[next++]) {
+                    readable.add(comment);
+                }
+            }
+            views.add(BlogView.of(blogs.get(i), readable, maxComments));
+        }
+        return views;
+    }
 
-        try {
-            permit.api.resourceInstances.create(new ResourceInstanceCreate(blog.getId().toString(), "blog").withTenant("default"));
-            permit.api.roleAssignments.assign(new RoleAssignmentCreate("author", user.getKey()).withResourceInstance("blog:" + blog.getId()).withTenant("default"));
-        } catch (IOException | PermitApiError | PermitContextError e) {
-            // In production code you should consider action atomicity, and rollback the action.
-            throw new RuntimeException("Failed to create resource instance or role assignment: " + e.getMessage());
+    static boolean omitsComments(Integer maxComments) {
+        return maxComments != null && maxComments == 0;
+    }
+
+    static void validatePage(int limit, Integer maxComments) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (maxComments != null && maxComments < 0) {
+            throw new BadRequestException("comments must not be negative");
         }
-        blogs.add(blog);
-        return blog;
     }
 
-    public Blog updateBlog(User user, int id, String content) {
-        Blog blog = getBlogById(id);
-        authorize(user, "update", blog);
-        blog.setContent(content);
-        return blog;
+    static String encodeCursor(int afterId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Integer.toString(afterId).getBytes(StandardCharsets.US_ASCII));
     }
 
-    public void deleteBlog(User user, int id) {
-        boolean isDeleted = blogs.removeIf(blog -> {
-            if (blog.getId().equals(id)) {
-                authorize(user, "delete", blog);
-                return true;
-            } else {
-                return false;
-            }
-        });
-        if (!isDeleted) {
-            throw new ResourceNotFoundException("Blog with id " + id + " not found");
+    static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
         }
         try {
-            permit.api.resourceInstances.delete("blog:" + id);
-        } catch (IOException | PermitApiError | PermitContextError e) {
-            // In production code you should consider action atomicity, and rollback the action.
-            throw new RuntimeException(e);
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
         }
     }
 
-    public Comment addComment(User user, int blogId, String content) {
-        authorize(user, "create", commentResourceBuilder.build());
-        Blog blog = getBlogById(blogId);
-        Comment comment = new Comment(commentIdCounter.incrementAndGet(), user.getKey(), content);
-        try {
-            permit.api.resourceInstances.create(new ResourceInstanceCreate(comment.getId().toString(), "comment").withTenant("default"));
-            permit.api.relationshipTuples.create(new RelationshipTupleCreate("blog:" + blogId, "parent", "comment:" + commentIdCounter));
-        } catch (IOException | PermitApiError | PermitContextError e) {
-            // In production code you should consider action atomicity, and rollback the action.
-            throw new RuntimeException(e);
+    /**
+     * The best {@code limit} readable blogs and comments matching {@code query}. The index ranks
+     * the matches once, and they are authorized in rank order, {@link #SEARCH_AUTHORIZE_BATCH} at
+     * a time, until enough are readable. At most {@link #MAX_SEARCH_CANDIDATES} are ranked and
+     * authorized, however many match.
+     */
+    public List<SearchResult> search(User user, String tenant, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("q must not be empty");
         }
-        blog.addComment(comment);
-        return comment;
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        authorize(user, "read", blogType(tenant));
+        var blogRepository = readRepository(tenant);
+        var hits = blogRepository.search(query, 0, MAX_SEARCH_CANDIDATES);
+        var results = new ArrayList<SearchResult>(limit);
+        for (int from = 0; from < hits.size() && results.size() < limit; from += SEARCH_AUTHORIZE_BATCH) {
+            var readable = readable(user, blogRepository, hits.subList(from, Math.min(from + SEARCH_AUTHORIZE_BATCH, hits.size())));
+            results.addAll(readable.subList(0, Math.min(readable.size(), limit - results.size())));
+        }
+        return results;
     }
 
-    public Comment updateComment(User user, int blogId, int commentId, String content) {
-        Blog blog = getBlogById(blogId);
-        Comment comment = blog.getComments().stream().filter(c -> c.getId().equals(commentId)).findFirst().orElseThrow(() -> new ResourceNotFoundException("Comment with id " + commentId + " not found"));
-        authorize(user, "update", comment);
-        comment.setContent(content);
-        return comment;
+    private record SearchCandidate(SearchResult result, int blogRequest, int itemRequest) {
     }
 
-    public void deleteComment(User user, int blogId, int commentId) {
-        Blog blog = getBlogById(blogId);
-        boolean isDeleted = blog.getComments().removeIf(comment -> {
-            if (comment.getId().equals(commentId)) {
-                authorize(user, "delete", comment);
-                return true;
+    private List<SearchResult> readable(User user, BlogRepository blogRepository, List<SearchHit> hits) {
+        var requests = new ArrayList<AuthorizationRequest>(hits.size());
+        var blogRequests = new HashMap<Integer, Integer>();
+        var candidates = new ArrayList<SearchCandidate>(hits.size());
+        for (var hit : hits) {
+            var blog = blogRepository.findById(hit.blogId()).orElse(null);
+            var comment = blog == null || hit.commentId() == null ? null : blog.findComment(hit.commentId()).orElse(null);
+            if (blog == null || (hit.commentId() != null && comment == null)) {
+                continue;
+            }
+            // A comment is only readable along with its blog
+            int blogRequest = blogRequests.computeIfAbsent(blog.getId(), id -> {
+                requests.add(new AuthorizationRequest("read", blog.toResource()));
+                return requests.size() - 1;
+            });
+            if (comment == null) {
+                candidates.add(new SearchCandidate(new SearchResult("blog", blog.getId(), null, blog.getAuthor(), blog.getContent(), hit.score()),
+                        blogRequest, blogRequest));
             } else {
-                return false;
+                requests.add(new AuthorizationRequest("read", comment.toResource()));
+                candidates.add(new SearchCandidate(new SearchResult("comment", blog.getId(), comment.getId(), comment.getAuthor(), comment.getContent(), hit.score()),
+                        blogRequest, requests.size() - 1));
             }
-        });
-        if (!isDeleted) {
-            throw new ResourceNotFoundException("Comment with id " + commentId + " not found");
         }
-        try {
-            permit.api.resourceInstances.delete("comment:" + commentId);
-        } catch (IOException | PermitApiError | PermitContextError e) {
-            // In production code you should consider action atomicity, and rollback the action.
-            throw new RuntimeException(e);
+        if (requests.isEmpty()) {
+            return List.of();
         }
+        var permitted = userService.authorizeAll(user, requests);
+        return candidates.stream()
+                .filter(candidate -> permitted[candidate.blogRequest()] && permitted[candidate.itemRequest()])
+                .map(SearchCandidate::result)
+                .toList();
+    }
+
+    /**
+     * Follows the tenant's blog and comment changes that the user may read, from the event after
+     * {@code lastEventId}, or from now on when it is {@code null}.
+     */
+    public Subscription subscribe(User user, String tenant, String lastEventId, Subscription.Listener listener) {
+        authorize(user, "read", blogType(tenant));
+        return follow(user, tenant, lastEventId, listener);
+    }
+
+    Subscription follow(User user, String tenant, String lastEventId, Subscription.Listener listener) {
+        return changeFeed.subscribe(user, tenant, lastEventId, listener);
+    }
+
+    /**
+     * The blog with the comments the user may read, like a listed blog with all its comments.
+     */
+    public BlogView getBlog(User user, String tenant, int id) {
+        Blog blog = getBlogById(tenant, id);
+        authorize(user, "read", blog);
+        return views(user, List.of(blog), null).get(0);
+    }
+
+    public List<Comment> getComments(User user, String tenant, int blogId) {
+        Blog blog = getBlogById(tenant, blogId);
+        authorize(user, "read", blog);
+        return userService.filter(user, "read", blog.getComments(), Comment::toResource);
+    }
+
+    public Blog addBlog(User user, String tenant, String content) {
+        authorize(user, "create", blogType(tenant));
+        return createBlog(tenant, user.getKey(), content);
+    }
+
+    Blog createBlog(String tenant, String author, String content) {
+        Blog blog = new Blog(blogIdCounter.incrementAndGet(), tenant, author, content);
+
+        var resource = "blog:" + blog.getId();
+        permitOutbox.enqueue(PermitMutation.createResourceInstance(resource, resource, tenant));
+        permitOutbox.enqueue(PermitMutation.assignResourceRole(resource, resource, tenant, author, "author"));
+        decisionCache.invalidateResource("blog", blog.getId().toString());
+        repository(tenant).save(blog);
+        changeFeed.publish(tenant, ChangeEvent.of("created", blog, content), blog.toResource(), null);
+        return blog;
+    }
+
+    /**
+     * Stores imported blogs, which already carry their ids, and announces each of them.
+     */
+    void saveAll(String tenant, List<Blog> blogs) {
+        repository(tenant).saveAll(blogs);
+        blogs.forEach(blog -> changeFeed.publish(tenant, ChangeEvent.of("created", blog, blog.getContent()), blog.toResource(), null));
+    }
+
+    public Blog updateBlog(User user, String tenant, int id, String content) {
+        Blog blog = getBlogById(tenant, id);
+        authorize(user, "update", blog);
+        return updateContent(blog, content);
+    }
+
+    Blog updateContent(Blog blog, String content) {
+        repository(blog.getTenant()).updateContent(blog, content);
+        changeFeed.publish(blog.getTenant(), ChangeEvent.of("updated", blog, content), blog.toResource(), null);
+        return blog;
+    }
+
+    public void deleteBlog(User user, String tenant, int id) {
+        authorize(user, "delete", getBlogById(tenant, id));
+        removeBlog(tenant, id);
+    }
+
+    void removeBlog(String tenant, int id) {
+        Blog blog = repository(tenant).deleteById(id).orElseThrow(() -> new ResourceNotFoundException("Blog with id " + id + " not found"));
+        permitOutbox.enqueue(PermitMutation.deleteResourceInstance("blog:" + id, "blog:" + id));
+        decisionCache.invalidateResource("blog", String.valueOf(id));
+        // Child comments lose their "parent" relation, and with it the derived moderator role
+        blog.getComments().forEach(comment -> decisionCache.invalidateResource("comment", comment.getId().toString()));
+        changeFeed.publish(tenant, ChangeEvent.of("deleted", blog, null), blog.toResource(), null);
+    }
+
+    public Comment addComment(User user, String tenant, int blogId, String content) {
+        authorize(user, "create", commentType(tenant));
+        return createComment(getBlogById(tenant, blogId), user.getKey(), content);
+    }
+
+    Comment createComment(Blog blog, String author, String content) {
+        Comment comment = new Comment(commentIdCounter.incrementAndGet(), blog.getTenant(), author, content);
+        var partition = "blog:" + blog.getId();
+        var resource = "comment:" + comment.getId();
+        permitOutbox.enqueue(PermitMutation.createResourceInstance(partition, resource, blog.getTenant()));
+        // The blog author moderates the comment through the "parent" relation
+        permitOutbox.enqueue(PermitMutation.createRelationshipTuple(partition, partition, "parent", resource,
+                new LocalGrant(blog.getAuthor(), resource, "moderator")));
+        decisionCache.invalidateResource("comment", comment.getId().toString());
+        repository(blog.getTenant()).addComment(blog, comment);
+        changeFeed.publish(blog.getTenant(), ChangeEvent.of("created", blog, comment, content), blog.toResource(), comment.toResource());
+        return comment;
+    }
+
+    public Comment updateComment(User user, String tenant, int blogId, int commentId, String content) {
+        Blog blog = getBlogById(tenant, blogId);
+        Comment comment = getCommentById(blog, commentId);
+        authorize(user, "update", comment);
+        return updateContent(blog, comment, content);
+    }
+
+    Comment updateContent(Blog blog, Comment comment, String content) {
+        repository(blog.getTenant()).updateComment(blog, comment, content);
+        changeFeed.publish(blog.getTenant(), ChangeEvent.of("updated", blog, comment, content), blog.toResource(), comment.toResource());
+        return comment;
+    }
+
+    public void deleteComment(User user, String tenant, int blogId, int commentId) {
+        Blog blog = getBlogById(tenant, blogId);
+        authorize(user, "delete", getCommentById(blog, commentId));
+        removeComment(blog, commentId);
+    }
+
+    void removeComment(Blog blog, int commentId) {
+        Comment comment = repository(blog.getTenant()).removeComment(blog, commentId).orElseThrow(() -> new ResourceNotFoundException("Comment with id " + commentId + " not found"));
+        permitOutbox.enqueue(PermitMutation.deleteResourceInstance("blog:" + blog.getId(), "comment:" + commentId));
+        decisionCache.invalidateResource("comment", String.valueOf(commentId));
+        changeFeed.publish(blog.getTenant(), ChangeEvent.of("deleted", blog, comment, null), blog.toResource(), comment.toResource());
     }
 }
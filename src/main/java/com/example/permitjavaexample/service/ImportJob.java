@@ -0,0 +1,106 @@
+package com.example.permitjavaexample.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk import, updated after every chunk.
+ */
+public class ImportJob {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String tenant;
+    private final String user;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong blogs = new AtomicLong();
+    private final AtomicLong comments = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ImportJob(String id, String tenant, String user) {
+        this.id = id;
+        this.tenant = tenant;
+        this.user = user;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getBlogs() {
+        return blogs.get();
+    }
+
+    public long getComments() {
+        return comments.get();
+    }
+
+    /**
+     * Permit writes whose bulk call failed and that were handed to the outbox to retry.
+     */
+    public long getDeferred() {
+        return deferred.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getElapsedMs() {
+        var end = finishedAt == null ? Instant.now() : finishedAt;
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    public double getItemsPerSecond() {
+        long elapsed = getElapsedMs();
+        return elapsed == 0 ? 0 : (blogs.get() + comments.get()) * 1000.0 / elapsed;
+    }
+
+    void imported(int blogs, int comments) {
+        this.blogs.addAndGet(blogs);
+        this.comments.addAndGet(comments);
+    }
+
+    void deferred(int mutations) {
+        deferred.addAndGet(mutations);
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.authorization.LocalAuthorizationState;
+import com.example.permitjavaexample.authorization.LocalGrant;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.exception.BadRequestException;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.BlogImport;
+import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.outbox.PermitMutation;
+import com.example.permitjavaexample.outbox.PermitMutationDispatcher;
+import com.example.permitjavaexample.outbox.PermitOutbox;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports blogs and their comments from a streamed JSON array or NDJSON body. Items are read and
+ * stored one chunk at a time, and each chunk's Permit writes are sent as bulk API calls, a few
+ * batches at a time, before the chunk becomes visible. Writes from a batch that fails are handed
+ * to the {@link PermitOutbox}, which retries them in order behind anything else for the same blog.
+ */
+@Service
+public class ImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+    // Resource instances must exist before roles or relations can reference them
+    private static final List<PermitMutation.Type> PHASES = List.of(
+            PermitMutation.Type.CREATE_RESOURCE_INSTANCE,
+            PermitMutation.Type.ASSIGN_RESOURCE_ROLE,
+            PermitMutation.Type.CREATE_RELATIONSHIP_TUPLE);
+
+    private final BlogService blogService;
+    private final UserService userService;
+    private final PermitMutationDispatcher dispatcher;
+    private final PermitOutbox permitOutbox;
+    private final LocalAuthorizationState localState;
+    private final ExecutorService permitExecutor;
+    private final PermitProperties.BulkImport config;
+    private final ObjectReader reader;
+    private final Counter importedBlogs;
+    private final Counter importedComments;
+    private final Deque<ImportJob> jobs = new ConcurrentLinkedDeque<>();
+
+    public ImportService(BlogService blogService, UserService userService, PermitMutationDispatcher dispatcher,
+                         PermitOutbox permitOutbox, LocalAuthorizationState localState, @Qualifier("permitExecutor") ExecutorService permitExecutor,
+                         PermitProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.blogService = blogService;
+        this.userService = userService;
+        this.dispatcher = dispatcher;
+        this.permitOutbox = permitOutbox;
+        this.localState = localState;
+        this.permitExecutor = permitExecutor;
+        this.config = properties.getBulkImport();
+        this.reader = objectMapper.readerFor(BlogImport.class);
+        this.importedBlogs = Counter.builder("blog.import.items").tag("type", "blog").register(registry);
+        this.importedComments = Counter.builder("blog.import.items").tag("type", "comment").register(registry);
+    }
+
+    public ImportJob importBlogs(User user, String tenant, InputStream body) {
+        userService.authorize(user, "import", BlogService.blogType(tenant));
+        var job = new ImportJob(UUID.randomUUID().toString(), tenant, user.getKey());
+        remember(job);
+        var chunk = new ArrayList<BlogImport>(config.getChunkSize());
+        try (MappingIterator<BlogImport> items = reader.readValues(body)) {
+            while (items.hasNextValue()) {
+                chunk.add(validate(items.nextValue()));
+                if (chunk.size() == config.getChunkSize()) {
+                    importChunk(job, tenant, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, tenant, chunk);
+            }
+        } catch (JsonProcessingException e) {
+            job.failed(e.getOriginalMessage());
+            throw new BadRequestException("Invalid import item after " + (job.getBlogs() + chunk.size()) + " blogs: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            job.failed(e.getMessage());
+            throw new RuntimeException("Failed to read import", e);
+        } catch (RuntimeException e) {
+            job.failed(e.getMessage());
+            throw e;
+        }
+        job.completed();
+        logger.info("Import {} by {} finished: {} blogs, {} comments in {}ms ({} items/s, {} deferred to the outbox)", job.getId(), job.getUser(),
+                job.getBlogs(), job.getComments(), job.getElapsedMs(), Math.round(job.getItemsPerSecond()), job.getDeferred());
+        return job;
+    }
+
+    public List<ImportJob> getJobs(User user, String tenant) {
+        userService.authorize(user, "import", BlogService.blogType(tenant));
+        return jobs.stream().filter(job -> job.getTenant().equals(tenant)).toList();
+    }
+
+    public ImportJob getJob(User user, String tenant, String id) {
+        userService.authorize(user, "import", BlogService.blogType(tenant));
+        return jobs.stream().filter(job -> job.getTenant().equals(tenant) && job.getId().equals(id)).findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Import with id " + id + " not found"));
+    }
+
+    private void remember(ImportJob job) {
+        jobs.addFirst(job);
+        while (jobs.size() > config.getRecentJobs()) {
+            jobs.pollLast();
+        }
+    }
+
+    private static BlogImport validate(BlogImport item) {
+        if (item.author() == null || item.author().isBlank() || item.content() == null) {
+            throw new BadRequestException("Every imported blog needs an author and content");
+        }
+        if (item.comments() != null && item.comments().stream().anyMatch(comment -> comment.author() == null || comment.author().isBlank() || comment.content() == null)) {
+            throw new BadRequestException("Every imported comment needs an author and content");
+        }
+        return item;
+    }
+
+    private void importChunk(ImportJob job, String tenant, List<BlogImport> items) {
+        var blogs = new ArrayList<Blog>(items.size());
+        var mutations = new ArrayList<PermitMutation>();
+        int comments = 0;
+        for (var item : items) {
+            var blog = new Blog(blogService.nextBlogId(), tenant, item.author(), item.content());
+            var partition = "blog:" + blog.getId();
+            mutations.add(PermitMutation.createResourceInstance(partition, partition, tenant));
+            mutations.add(PermitMutation.assignResourceRole(partition, partition, tenant, blog.getAuthor(), "author"));
+            for (var imported : item.comments() == null ? List.<BlogImport.CommentImport>of() : item.comments()) {
+                var comment = new Comment(blogService.nextCommentId(), tenant, imported.author(), imported.content());
+                var resource = "comment:" + comment.getId();
+                blog.addComment(comment);
+                mutations.add(PermitMutation.createResourceInstance(partition, resource, tenant));
+                mutations.add(PermitMutation.createRelationshipTuple(partition, partition, "parent", resource,
+                        new LocalGrant(blog.getAuthor(), resource, "moderator")));
+                comments++;
+            }
+            blogs.add(blog);
+        }
+        // The ids are new, so no decision about them can be cached yet. The Permit writes are applied
+        // or journaled in the outbox before the blogs are stored, so no stored blog lacks them
+        job.deferred(sync(mutations));
+        blogService.saveAll(tenant, blogs);
+        job.imported(blogs.size(), comments);
+        importedBlogs.increment(blogs.size());
+        importedComments.increment(comments);
+        logger.info("Import {}: {} blogs, {} comments so far ({} items/s)", job.getId(), job.getBlogs(), job.getComments(), Math.round(job.getItemsPerSecond()));
+    }
+
+    /**
+     * Applies the chunk's writes phase by phase and returns how many were deferred to the outbox.
+     * Once any write for a blog is deferred, the rest of that blog's writes follow it there.
+     */
+    private int sync(List<PermitMutation> mutations) {
+        var deferredPartitions = new HashSet<String>();
+        int deferred = 0;
+        for (var type : PHASES) {
+            var ready = new ArrayList<PermitMutation>();
+            for (var mutation : mutations) {
+                if (mutation.type() != type) {
+                    continue;
+                }
+                if (deferredPartitions.contains(mutation.partition())) {
+                    permitOutbox.enqueue(mutation);
+                    deferred++;
+                } else {
+                    ready.add(mutation);
+                }
+            }
+            for (var failed : applyInBatches(type, ready)) {
+                deferredPartitions.add(failed.partition());
+                permitOutbox.enqueue(failed);
+                deferred++;
+            }
+        }
+        return deferred;
+    }
+
+    private List<PermitMutation> applyInBatches(PermitMutation.Type type, List<PermitMutation> mutations) {
+        var slots = new Semaphore(config.getParallelism());
+        var futures = new ArrayList<CompletableFuture<List<PermitMutation>>>();
+        for (int from = 0; from < mutations.size(); from += config.getApiBatchSize()) {
+            var batch = mutations.subList(from, Math.min(mutations.size(), from + config.getApiBatchSize()));
+            slots.acquireUninterruptibly();
+            futures.add(CompletableFuture.supplyAsync(() -> apply(type, batch), permitExecutor).whenComplete((failed, error) -> slots.release()));
+        }
+        var failed = new ArrayList<PermitMutation>();
+        futures.forEach(future -> failed.addAll(future.join()));
+        return failed;
+    }
+
+    /**
+     * Returns the mutations of the batch that were not applied.
+     */
+    private List<PermitMutation> apply(PermitMutation.Type type, List<PermitMutation> batch) {
+        if (type == PermitMutation.Type.CREATE_RESOURCE_INSTANCE) {
+            // There is no bulk endpoint for resource instances, so only the failed creates are retried
+            var failed = new ArrayList<PermitMutation>();
+            for (var mutation : batch) {
+                try {
+                    dispatcher.apply(mutation);
+                    localState.apply(mutation);
+                } catch (Exception e) {
+                    logger.warn("Failed to create {}, deferring to the outbox: {}", mutation.resource(), e.getMessage());
+                    failed.add(mutation);
+                }
+            }
+            return failed;
+        }
+        try {
+            dispatcher.applyAll(type, batch);
+        } catch (Exception e) {
+            logger.warn("Bulk {} of {} Permit objects failed, deferring to the outbox: {}", type, batch.size(), e.getMessage());
+            return batch;
+        }
+        batch.forEach(localState::apply);
+        return List.of();
+    }
+}
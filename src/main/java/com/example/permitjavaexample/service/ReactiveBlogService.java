@@ -0,0 +1,236 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.feed.Subscription;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.BlogPage;
+import com.example.permitjavaexample.model.BlogView;
+import com.example.permitjavaexample.model.ChangeEvent;
+import com.example.permitjavaexample.model.Comment;
+import com.example.permitjavaexample.model.SearchResult;
+import io.permit.sdk.enforcement.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@link BlogService}. Authorization goes through the
+ * {@link ReactiveUserService}; once a request is authorized, the change itself is applied by the
+ * {@link BlogService} on the bounded elastic scheduler, since a durable repository waits for its
+ * log write.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBlogService {
+    private final BlogService blogService;
+    private final ReactiveUserService userService;
+    private final AuthorizationTimeTracker authorizationTime;
+
+    public ReactiveBlogService(BlogService blogService, ReactiveUserService userService, AuthorizationTimeTracker authorizationTime) {
+        this.blogService = blogService;
+        this.userService = userService;
+        this.authorizationTime = authorizationTime;
+    }
+
+    public long storeVersion(String tenant) {
+        return blogService.storeVersion(tenant);
+    }
+
+    /**
+     * Same page as {@link BlogService#getBlogPage}, with the page's checks running concurrently.
+     */
+    public Mono<BlogPage> getBlogPage(User user, String tenant, String author, String cursor, int limit, Integer maxComments) {
+        return Mono.fromCallable(() -> {
+                    BlogService.validatePage(limit, maxComments);
+                    return BlogService.decodeCursor(cursor);
+                })
+                .flatMap(afterId -> userService.authorize(user, "read", BlogService.blogType(tenant))
+                        .then(Mono.defer(() -> page(user, tenant, author, afterId, limit, maxComments, new ArrayList<>(limit), 0))));
+    }
+
+    private Mono<BlogPage> page(User user, String tenant, String author, int afterId, int limit, Integer maxComments, List<BlogView> blogs, int scanned) {
+        int wanted = limit - blogs.size();
+        int batch = Math.min(Math.max(wanted, BlogService.PAGE_SCAN_BATCH), BlogService.MAX_PAGE_SCAN - scanned);
+        var blogRepository = blogService.readRepository(tenant);
+        var candidates = author == null ? blogRepository.findPage(afterId, batch) : blogRepository.findPageByAuthor(author, afterId, batch);
+        return userService.filter(user, "read", Flux.fromIterable(candidates), Blog::toResource)
+                .collectList()
+                .flatMap(readable -> {
+                    int taken = Math.min(readable.size(), wanted);
+                    return views(user, readable.subList(0, taken), maxComments).flatMap(views -> {
+                        blogs.addAll(views);
+                        if (taken < readable.size()) {
+                            return Mono.just(new BlogPage(blogs, BlogService.encodeCursor(readable.get(taken - 1).getId())));
+                        }
+                        if (candidates.size() < batch) {
+                            return Mono.just(new BlogPage(blogs, null));
+                        }
+                        int last = candidates.get(candidates.size() - 1).getId();
+                        if (blogs.size() == limit || scanned + candidates.size() >= BlogService.MAX_PAGE_SCAN) {
+                            return Mono.just(new BlogPage(blogs, BlogService.encodeCursor(last)));
+                        }
+                        return page(user, tenant, author, last, limit, maxComments, blogs, scanned + candidates.size());
+                    });
+                });
+    }
+
+    /**
+     * Views of blogs the user may read, each with only the comments the user may read too, as
+     * {@link BlogService} builds them.
+     */
+    private Mono<List<BlogView>> views(User user, List<Blog> blogs, Integer maxComments) {
+        var comments = blogs.stream().map(blog -> BlogService.omitsComments(maxComments) ? List.<Comment>of() : blog.getComments()).toList();
+        // Comments are compared by identity, so the set holds exactly the ones checked
+        return userService.filter(user, "read", Flux.fromIterable(comments).flatMapIterable(list -> list), Comment::toResource)
+                .collect(Collectors.toSet())
+                .map(readable -> {
+                    var views = new ArrayList<BlogView>(blogs.size());
+                    for (int i = 0; i < blogs.size(); i++) {
+                        views.add(BlogView.of(blogs.get(i), comments.get(i).stream().filter(readable::contains).toList(), maxComments));
+                    }
+                    return views;
+                });
+    }
+
+    /**
+     * Every readable blog after {@code cursor}, one page of {@code pageSize} at a time. The next
+     * page is only fetched once the subscriber has consumed the previous one.
+     */
+    public Flux<BlogView> streamBlogs(User user, String tenant, String author, String cursor, int pageSize, Integer maxComments) {
+        return getBlogPage(user, tenant, author, cursor, pageSize, maxComments)
+                .expand(page -> page.nextCursor() == null ? Mono.empty() : getBlogPage(user, tenant, author, page.nextCursor(), pageSize, maxComments))
+                .concatMapIterable(BlogPage::blogs);
+    }
+
+    /**
+     * {@link BlogService#search}, on the bounded elastic scheduler. The candidates are authorized
+     * with bulk checks, which block.
+     */
+    public Mono<List<SearchResult>> search(User user, String tenant, String query, int limit) {
+        return Mono.deferContextual(context -> Mono.fromCallable(() -> {
+                    var previous = authorizationTime.bind(context.getOrDefault(AuthorizationTimeTracker.Timing.class, null));
+                    try {
+                        return blogService.search(user, tenant, query, limit);
+                    } finally {
+                        authorizationTime.restore(previous);
+                    }
+                }))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * {@link BlogService#subscribe} as server-sent events. Changes are read from the log only as
+     * far as the client has requested, so a slow client falls behind in the log rather than
+     * queueing events in memory.
+     */
+    public Flux<ServerSentEvent<Object>> changes(User user, String tenant, String lastEventId) {
+        return userService.authorize(user, "read", BlogService.blogType(tenant)).thenMany(Flux.<ServerSentEvent<Object>>create(sink -> {
+            // The feed carries the timing bound here to its own threads
+            var previous = authorizationTime.bind(sink.contextView().getOrDefault(AuthorizationTimeTracker.Timing.class, null));
+            Subscription subscription;
+            try {
+                subscription = follow(user, tenant, lastEventId, sink);
+            } finally {
+                authorizationTime.restore(previous);
+            }
+            sink.onRequest(subscription::request);
+            sink.onDispose(subscription::close);
+        }));
+    }
+
+    private Subscription follow(User user, String tenant, String lastEventId, FluxSink<ServerSentEvent<Object>> sink) {
+        return blogService.follow(user, tenant, lastEventId, new Subscription.Listener() {
+            @Override
+            public void event(String id, ChangeEvent event) {
+                sink.next(ServerSentEvent.<Object>builder(event).id(id).build());
+            }
+
+            @Override
+            public void reset(String id) {
+                // EventSource drops events without data
+                sink.next(ServerSentEvent.<Object>builder(Map.of()).id(id).event("reset").build());
+            }
+
+            @Override
+            public void heartbeat() {
+                sink.next(ServerSentEvent.<Object>builder().comment("keep-alive").build());
+            }
+
+            @Override
+            public void complete() {
+                sink.complete();
+            }
+        });
+    }
+
+    public Mono<BlogView> getBlog(User user, String tenant, int id) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, id))
+                .flatMap(blog -> userService.authorize(user, "read", blog.toResource()).then(views(user, List.of(blog), null)))
+                .map(views -> views.get(0));
+    }
+
+    public Flux<Comment> getComments(User user, String tenant, int blogId) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, blogId))
+                .flatMapMany(blog -> userService.authorize(user, "read", blog.toResource())
+                        .thenMany(userService.filter(user, "read", Flux.fromIterable(blog.getComments()), Comment::toResource)));
+    }
+
+    public Mono<Blog> addBlog(User user, String tenant, String content) {
+        return userService.authorize(user, "create", BlogService.blogType(tenant)).then(write(() -> blogService.createBlog(tenant, user.getKey(), content)));
+    }
+
+    public Mono<Blog> updateBlog(User user, String tenant, int id, String content) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, id))
+                .flatMap(blog -> userService.authorize(user, "update", blog.toResource())
+                        .then(write(() -> blogService.updateContent(blog, content))));
+    }
+
+    public Mono<Void> deleteBlog(User user, String tenant, int id) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, id))
+                .flatMap(blog -> userService.authorize(user, "delete", blog.toResource())
+                        .then(write(() -> {
+                            blogService.removeBlog(tenant, id);
+                            return id;
+                        })))
+                .then();
+    }
+
+    public Mono<Comment> addComment(User user, String tenant, int blogId, String content) {
+        return userService.authorize(user, "create", BlogService.commentType(tenant))
+                .then(Mono.fromCallable(() -> blogService.getBlogById(tenant, blogId)))
+                .flatMap(blog -> write(() -> blogService.createComment(blog, user.getKey(), content)));
+    }
+
+    public Mono<Comment> updateComment(User user, String tenant, int blogId, int commentId, String content) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, blogId))
+                .flatMap(blog -> {
+                    var comment = blogService.getCommentById(blog, commentId);
+                    return userService.authorize(user, "update", comment.toResource())
+                            .then(write(() -> blogService.updateContent(blog, comment, content)));
+                });
+    }
+
+    public Mono<Void> deleteComment(User user, String tenant, int blogId, int commentId) {
+        return Mono.fromCallable(() -> blogService.getBlogById(tenant, blogId))
+                .flatMap(blog -> userService.authorize(user, "delete", blogService.getCommentById(blog, commentId).toResource())
+                        .then(write(() -> {
+                            blogService.removeComment(blog, commentId);
+                            return commentId;
+                        })))
+                .then();
+    }
+
+    private static <T> Mono<T> write(Callable<T> change) {
+        return Mono.fromCallable(change).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.authorization.AuthenticatedUserCache;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.DecisionKey;
+import com.example.permitjavaexample.authorization.InFlightChecks;
+import com.example.permitjavaexample.authorization.LocalGrantOverlay;
+import com.example.permitjavaexample.authorization.LocalPolicyEvaluator;
+import com.example.permitjavaexample.authorization.PdpClient;
+import com.example.permitjavaexample.authorization.PdpGuard;
+import com.example.permitjavaexample.authorization.PdpUnavailableException;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.exception.ForbiddenAccessException;
+import com.example.permitjavaexample.exception.UnauthorizedException;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.metrics.PermitMetrics;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@link UserService} for the WebFlux stack. Checks that miss the
+ * local grants and the decision cache go to the PDP asynchronously through the pooled
+ * {@link PdpClient}, so no thread waits on the PDP. Permit API writes, which the SDK only
+ * offers as blocking calls, run on the bounded elastic scheduler.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+    private final UserService userService;
+    private final AuthenticatedUserCache userCache;
+    private final DecisionCache decisionCache;
+    private final InFlightChecks inFlightChecks;
+    private final LocalGrantOverlay localGrants;
+    private final LocalPolicyEvaluator localPolicy;
+    private final PdpClient pdpClient;
+    private final PdpGuard pdpGuard;
+    private final PermitProperties.LocalPolicy.Mode policyMode;
+    private final int concurrency;
+    private final PermitMetrics metrics;
+    private final AuthorizationTimeTracker authorizationTime;
+
+    public ReactiveUserService(UserService userService, AuthenticatedUserCache userCache, DecisionCache decisionCache, InFlightChecks inFlightChecks,
+                               LocalGrantOverlay localGrants, LocalPolicyEvaluator localPolicy, PdpClient pdpClient, PdpGuard pdpGuard,
+                               PermitProperties properties, PermitMetrics metrics, AuthorizationTimeTracker authorizationTime) {
+        this.userService = userService;
+        this.userCache = userCache;
+        this.decisionCache = decisionCache;
+        this.inFlightChecks = inFlightChecks;
+        this.localGrants = localGrants;
+        this.localPolicy = localPolicy;
+        this.pdpClient = pdpClient;
+        this.pdpGuard = pdpGuard;
+        this.policyMode = properties.getLocalPolicy().getMode();
+        this.concurrency = properties.getBulk().getParallelism();
+        this.metrics = metrics;
+        this.authorizationTime = authorizationTime;
+    }
+
+    /**
+     * The user named by an {@code Authorization} header value; empty if there is none.
+     */
+    public Mono<User> authenticate(String authorization) {
+        var cached = userCache.getIfPresent(authorization);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.fromCallable(() -> userCache.resolve(authorization)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<User> signup(String key) {
+        return Mono.fromCallable(() -> userService.signup(key)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> assignRole(User user, String tenant, String role) {
+        if (user == null) {
+            return Mono.error(new UnauthorizedException("Not logged in"));
+        }
+        return Mono.<Void>fromRunnable(() -> userService.assignRole(user, tenant, role)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> authorize(User user, String action, Resource resource) {
+        if (user == null) {
+            return Mono.error(new UnauthorizedException("Not logged in"));
+        }
+        return isPermitted(user, action, resource)
+                .flatMap(permitted -> permitted ? Mono.<Void>empty() : Mono.error(new ForbiddenAccessException("Access denied")));
+    }
+
+    public Mono<Boolean> isPermitted(User user, String action, Resource resource) {
+        if (user == null) {
+            return Mono.just(false);
+        }
+        if (localGrants.permits(user, action, resource)) {
+            metrics.recordDecision("overlay", action, resource.getType(), true);
+            return Mono.just(true);
+        }
+        var key = DecisionKey.of(user, action, resource);
+        Boolean permitted = decisionCache.get(key);
+        if (permitted != null) {
+            metrics.recordDecision("cache", action, resource.getType(), permitted);
+            return Mono.just(permitted);
+        }
+        long generation = decisionCache.generation();
+        // The future may be shared with other callers, so one cancelling must not cancel it
+        return authorizationTime.time(Mono.fromFuture(() -> inFlightChecks.decideAsync(key, () -> check(user, action, resource)
+                .thenApply(decision -> {
+                    decisionCache.put(key, decision, generation);
+                    return decision;
+                })
+                .exceptionally(error -> {
+                    var cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof PdpUnavailableException unavailable) {
+                        // Fallback decisions are not cached, the next check tries the PDP again
+                        return pdpGuard.fallback(key, unavailable);
+                    }
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                })), true));
+    }
+
+    /**
+     * The items the user may perform {@code action} on, in order. Up to
+     * {@code permit.bulk.parallelism} checks run at once and items are requested from upstream
+     * only as checks complete.
+     */
+    public <T> Flux<T> filter(User user, String action, Flux<T> items, Function<T, Resource> toResource) {
+        return items.flatMapSequential(item -> isPermitted(user, action, toResource.apply(item))
+                .filter(Boolean::booleanValue)
+                .map(permitted -> item), concurrency);
+    }
+
+    private CompletableFuture<Boolean> check(User user, String action, Resource resource) {
+        if (policyMode == PermitProperties.LocalPolicy.Mode.LOCAL) {
+            boolean permitted = localPolicy.check(user, action, resource);
+            metrics.recordDecision("local", action, resource.getType(), permitted);
+            return CompletableFuture.completedFuture(permitted);
+        }
+        var sample = metrics.start();
+        return pdpGuard.callAsync(() -> pdpClient.checkAsync(user, action, resource)).whenComplete((permitted, error) -> {
+            if (error != null) {
+                var reason = error instanceof PdpUnavailableException unavailable ? unavailable.getReason() : PdpGuard.ERROR;
+                metrics.recordCall(sample, "check", action, resource.getType(), PdpGuard.ERROR.equals(reason) ? PermitMetrics.ERROR : PermitMetrics.REJECTED);
+                return;
+            }
+            metrics.recordCall(sample, "check", action, resource.getType(), PermitMetrics.outcome(permitted));
+            metrics.recordDecision("pdp", action, resource.getType(), permitted);
+            if (policyMode == PermitProperties.LocalPolicy.Mode.SHADOW) {
+                localPolicy.shadow(user, action, resource, permitted);
+            }
+        });
+    }
+}
@@ -1,57 +1,332 @@
 package com.example.permitjavaexample.service;
 
+import com.example.permitjavaexample.authorization.AuthenticatedUserCache;
+import com.example.permitjavaexample.authorization.AuthorizationRequest;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.DecisionKey;
+import com.example.permitjavaexample.authorization.InFlightChecks;
+import com.example.permitjavaexample.authorization.LocalAuthorizationState;
+import com.example.permitjavaexample.authorization.LocalGrantOverlay;
+import com.example.permitjavaexample.authorization.LocalPolicyEvaluator;
+import com.example.permitjavaexample.authorization.PdpClient;
+import com.example.permitjavaexample.authorization.PdpGuard;
+import com.example.permitjavaexample.authorization.PdpUnavailableException;
+import com.example.permitjavaexample.config.PermitProperties;
 import com.example.permitjavaexample.exception.ForbiddenAccessException;
 import com.example.permitjavaexample.exception.UnauthorizedException;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.metrics.PermitMetrics;
 import io.permit.sdk.Permit;
 import io.permit.sdk.api.PermitApiError;
 import io.permit.sdk.api.PermitContextError;
 import io.permit.sdk.enforcement.Resource;
 import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 @Service
 public class UserService {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     private final Permit permit;
+    private final AuthenticatedUserCache userCache;
+    private final DecisionCache decisionCache;
+    private final InFlightChecks inFlightChecks;
+    private final LocalGrantOverlay localGrants;
+    private final LocalAuthorizationState localState;
+    private final LocalPolicyEvaluator localPolicy;
+    private final PdpClient pdpClient;
+    private final PdpGuard pdpGuard;
+    private final ExecutorService permitExecutor;
+    private final boolean bulkEnabled;
+    private final PermitProperties.LocalPolicy.Mode policyMode;
+    private final boolean pooledTransport;
+    private final PermitMetrics metrics;
+    private final AuthorizationTimeTracker authorizationTime;
 
-    public UserService(Permit permit) {
+    public UserService(Permit permit, AuthenticatedUserCache userCache, DecisionCache decisionCache, InFlightChecks inFlightChecks, LocalGrantOverlay localGrants, LocalAuthorizationState localState,
+                       LocalPolicyEvaluator localPolicy, PdpClient pdpClient, PdpGuard pdpGuard, @Qualifier("permitExecutor") ExecutorService permitExecutor,
+                       PermitProperties properties, PermitMetrics metrics, AuthorizationTimeTracker authorizationTime) {
         this.permit = permit;
+        this.userCache = userCache;
+        this.decisionCache = decisionCache;
+        this.inFlightChecks = inFlightChecks;
+        this.localGrants = localGrants;
+        this.localState = localState;
+        this.localPolicy = localPolicy;
+        this.pdpClient = pdpClient;
+        this.pdpGuard = pdpGuard;
+        this.permitExecutor = permitExecutor;
+        this.bulkEnabled = properties.getBulk().isEnabled();
+        this.policyMode = properties.getLocalPolicy().getMode();
+        this.pooledTransport = properties.getHttp().getTransport() == PermitProperties.Http.Transport.POOLED;
+        this.metrics = metrics;
+        this.authorizationTime = authorizationTime;
     }
 
     public User login(String key) {
         return new User.Builder(key).build();
     }
 
+    /**
+     * Resolves the user named by an {@code Authorization} header value, or {@code null} if there is none.
+     */
+    public User authenticate(String authorization) {
+        return userCache.resolve(authorization);
+    }
+
     public User signup(String key) {
         var user = new User.Builder(key).build();
+        var sample = metrics.start();
         try {
             permit.api.users.sync(user);
+            metrics.recordCall(sample, "users.sync", "user", PermitMetrics.SUCCESS);
         } catch (PermitContextError | PermitApiError | IOException e) {
+            metrics.recordCall(sample, "users.sync", "user", PermitMetrics.ERROR);
             throw new RuntimeException("Failed to create user", e);
         }
+        userCache.invalidate(key);
+        decisionCache.invalidateUser(key);
         return user;
     }
 
-    public void assignRole(User user, String role) {
+    /**
+     * Gives the user a role in {@code tenant}.
+     */
+    public void assignRole(User user, String tenant, String role) {
+        var sample = metrics.start();
         try {
-            permit.api.users.assignRole(user.getKey(), role, "default");
+            permit.api.users.assignRole(user.getKey(), role, tenant);
+            metrics.recordCall(sample, "users.assignRole", "user", PermitMetrics.SUCCESS);
         } catch (PermitApiError | PermitContextError | IOException e) {
+            metrics.recordCall(sample, "users.assignRole", "user", PermitMetrics.ERROR);
             throw new RuntimeException("Failed to assign role to user", e);
         }
+        localState.assignTenantRole(tenant, user.getKey(), role);
+        userCache.invalidate(user.getKey());
+        decisionCache.invalidateUser(user.getKey());
     }
 
     public void authorize(User user, String action, Resource resource) {
         if (user == null) {
             throw new UnauthorizedException("Not logged in");
         }
+        long start = authorizationTime.start();
         try {
-            var permitted = permit.check(user, action, resource);
-            if (!permitted) {
+            if (!decide(user, action, resource)) {
                 throw new ForbiddenAccessException("Access denied");
             }
-        } catch (PermitApiError | IOException e) {
-            throw new RuntimeException("Failed to authorize user", e);
+        } finally {
+            authorizationTime.stop(start);
+        }
+    }
+
+    /**
+     * Same decision as {@link #authorize}, returned instead of thrown.
+     */
+    public boolean isPermitted(User user, String action, Resource resource) {
+        if (user == null) {
+            return false;
+        }
+        long start = authorizationTime.start();
+        try {
+            return decide(user, action, resource);
+        } finally {
+            authorizationTime.stop(start);
+        }
+    }
+
+    private boolean decide(User user, String action, Resource resource) {
+        if (localGrants.permits(user, action, resource)) {
+            metrics.recordDecision("overlay", action, resource.getType(), true);
+            return true;
+        }
+        var key = DecisionKey.of(user, action, resource);
+        Boolean permitted = decisionCache.get(key);
+        if (permitted != null) {
+            metrics.recordDecision("cache", action, resource.getType(), permitted);
+            return permitted;
+        }
+        long generation = decisionCache.generation();
+        return inFlightChecks.decide(key, () -> {
+            try {
+                boolean decision = check(user, action, resource);
+                decisionCache.put(key, decision, generation);
+                return decision;
+            } catch (PdpUnavailableException e) {
+                // Fallback decisions are not cached, the next check tries the PDP again
+                return pdpGuard.fallback(key, e);
+            }
+        });
+    }
+
+    /**
+     * Asks the configured policy engine directly, skipping local grants, the decision cache and
+     * coalescing. Used to warm up the check path.
+     */
+    public boolean checkUncached(User user, String action, Resource resource) {
+        return check(user, action, resource);
+    }
+
+    private boolean check(User user, String action, Resource resource) {
+        if (policyMode == PermitProperties.LocalPolicy.Mode.LOCAL) {
+            boolean permitted = localPolicy.check(user, action, resource);
+            metrics.recordDecision("local", action, resource.getType(), permitted);
+            return permitted;
+        }
+        boolean permitted = checkRemote(user, action, resource);
+        metrics.recordDecision("pdp", action, resource.getType(), permitted);
+        if (policyMode == PermitProperties.LocalPolicy.Mode.SHADOW) {
+            localPolicy.shadow(user, action, resource, permitted);
+        }
+        return permitted;
+    }
+
+    private boolean checkRemote(User user, String action, Resource resource) {
+        var sample = metrics.start();
+        try {
+            // The SDK client only knows permit.pdpUrl, tenants on other shards always use the pooled transport
+            boolean permitted = pdpGuard.call(() -> pooledTransport || !pdpClient.usesDefaultPdp(resource)
+                    ? pdpClient.check(user, action, resource)
+                    : permit.check(user, action, resource));
+            metrics.recordCall(sample, "check", action, resource.getType(), PermitMetrics.outcome(permitted));
+            return permitted;
+        } catch (PdpUnavailableException e) {
+            metrics.recordCall(sample, "check", action, resource.getType(), outcome(e));
+            throw e;
+        }
+    }
+
+    private static String outcome(PdpUnavailableException e) {
+        return PdpGuard.ERROR.equals(e.getReason()) ? PermitMetrics.ERROR : PermitMetrics.REJECTED;
+    }
+
+    /**
+     * Decides many requests for one user. Cached decisions are served locally, the rest are sent
+     * to the PDP as a single bulk query, falling back to concurrent single checks if that fails.
+     */
+    public boolean[] authorizeAll(User user, List<AuthorizationRequest> requests) {
+        if (user == null) {
+            throw new UnauthorizedException("Not logged in");
+        }
+        long start = authorizationTime.start();
+        try {
+            return decideAll(user, requests);
+        } finally {
+            authorizationTime.stop(start);
+        }
+    }
+
+    private boolean[] decideAll(User user, List<AuthorizationRequest> requests) {
+        var result = new boolean[requests.size()];
+        var keys = new DecisionKey[requests.size()];
+        var misses = new ArrayList<Integer>();
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            if (localGrants.permits(user, request.action(), request.resource())) {
+                metrics.recordDecision("overlay", request.action(), request.resource().getType(), true);
+                result[i] = true;
+                continue;
+            }
+            keys[i] = DecisionKey.of(user, request.action(), request.resource());
+            Boolean permitted = decisionCache.get(keys[i]);
+            if (permitted == null) {
+                misses.add(i);
+            } else {
+                metrics.recordDecision("cache", request.action(), request.resource().getType(), permitted);
+                result[i] = permitted;
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        var pending = misses.stream().map(requests::get).toList();
+        long generation = decisionCache.generation();
+        boolean[] decisions;
+        try {
+            decisions = check(user, pending);
+        } catch (PdpUnavailableException e) {
+            for (int index : misses) {
+                result[index] = pdpGuard.fallback(keys[index], e);
+            }
+            return result;
+        }
+        for (int i = 0; i < decisions.length; i++) {
+            int index = misses.get(i);
+            result[index] = decisions[i];
+            decisionCache.put(keys[index], decisions[i], generation);
+        }
+        return result;
+    }
+
+    public <T> List<T> filter(User user, String action, List<T> items, Function<T, Resource> toResource) {
+        var requests = items.stream().map(item -> new AuthorizationRequest(action, toResource.apply(item))).toList();
+        var permitted = authorizeAll(user, requests);
+        var result = new ArrayList<T>(items.size());
+        for (int i = 0; i < permitted.length; i++) {
+            if (permitted[i]) {
+                result.add(items.get(i));
+            }
+        }
+        return result;
+    }
+
+    private boolean[] check(User user, List<AuthorizationRequest> requests) {
+        var local = policyMode == PermitProperties.LocalPolicy.Mode.LOCAL;
+        var result = local ? new boolean[requests.size()] : checkRemote(user, requests);
+        for (int i = 0; i < result.length; i++) {
+            var request = requests.get(i);
+            if (local) {
+                result[i] = localPolicy.check(user, request.action(), request.resource());
+            } else if (policyMode == PermitProperties.LocalPolicy.Mode.SHADOW) {
+                localPolicy.shadow(user, request.action(), request.resource(), result[i]);
+            }
+            metrics.recordDecision(local ? "local" : "pdp", request.action(), request.resource().getType(), result[i]);
+        }
+        return result;
+    }
+
+    private boolean[] checkRemote(User user, List<AuthorizationRequest> requests) {
+        if (requests.size() == 1) {
+            var request = requests.get(0);
+            return new boolean[]{checkRemote(user, request.action(), request.resource())};
+        }
+        if (bulkEnabled) {
+            var sample = metrics.start();
+            try {
+                var result = pdpGuard.call(() -> pdpClient.bulkCheck(user, requests));
+                metrics.recordCall(sample, "bulk_check", requests.get(0).resource().getType(), PermitMetrics.SUCCESS);
+                return result;
+            } catch (PdpUnavailableException e) {
+                metrics.recordCall(sample, "bulk_check", requests.get(0).resource().getType(), outcome(e));
+                if (!PdpGuard.ERROR.equals(e.getReason())) {
+                    // Single checks would be rejected just the same
+                    throw e;
+                }
+                logger.warn("PDP bulk check failed, falling back to single checks: {}", e.getMessage());
+            }
+        }
+        var futures = requests.stream()
+                .map(request -> CompletableFuture.supplyAsync(() -> checkRemote(user, request.action(), request.resource()), permitExecutor))
+                .toList();
+        var result = new boolean[futures.size()];
+        try {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = futures.get(i).join();
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
+        return result;
     }
 }
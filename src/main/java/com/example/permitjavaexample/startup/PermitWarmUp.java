@@ -0,0 +1,127 @@
+package com.example.permitjavaexample.startup;
+
+import com.example.permitjavaexample.authorization.PdpClient;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.service.UserService;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pays the cold costs of the check path before real traffic does: opens PDP connections, loads
+ * and compiles the check path by running it repeatedly, and fills the decision cache with the
+ * configured common checks. Users are resolved through {@link UserService#authenticate} like a
+ * request's, so their decisions are cached under the keys requests look up. Only the configured
+ * users are warmed, and they are never created or given roles. Reports
+ * OUT_OF_SERVICE, and so keeps the readiness group down, until it has finished.
+ */
+@Component
+public class PermitWarmUp implements HealthIndicator {
+    private static final Logger logger = LoggerFactory.getLogger(PermitWarmUp.class);
+
+    private record Check(User user, String action, Resource resource) {
+    }
+
+    private final UserService userService;
+    private final PdpClient pdpClient;
+    private final ApplicationStartup applicationStartup;
+    private final PermitProperties.WarmUp settings;
+    private final boolean remote;
+    private volatile Health health;
+
+    public PermitWarmUp(UserService userService, PdpClient pdpClient, ApplicationStartup applicationStartup, PermitProperties properties) {
+        this.userService = userService;
+        this.pdpClient = pdpClient;
+        this.applicationStartup = applicationStartup;
+        this.settings = properties.getWarmUp();
+        this.remote = properties.getLocalPolicy().getMode() != PermitProperties.LocalPolicy.Mode.LOCAL;
+        this.health = settings.isEnabled()
+                ? Health.outOfService().withDetail("warmUp", "pending").build()
+                : Health.up().withDetail("warmUp", "disabled").build();
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (settings.isEnabled()) {
+            Thread.ofPlatform().name("permit-warm-up").daemon().start(this::run);
+        }
+    }
+
+    private void run() {
+        var step = applicationStartup.start("permit.warm-up");
+        long started = System.nanoTime();
+        long deadline = started + settings.getTimeout().toNanos();
+        int connections = 0;
+        int cached = 0;
+        int iterations = 0;
+        String failure = null;
+        try {
+            if (remote) {
+                connections = pdpClient.warmUp(settings.getConnections());
+            }
+            var checks = checks();
+            for (var check : checks) {
+                userService.isPermitted(check.user(), check.action(), check.resource());
+                cached++;
+            }
+            while (!checks.isEmpty() && iterations < settings.getIterations() && System.nanoTime() < deadline) {
+                var check = checks.get(iterations % checks.size());
+                userService.checkUncached(check.user(), check.action(), check.resource());
+                iterations++;
+            }
+        } catch (RuntimeException e) {
+            failure = e.getMessage();
+            logger.warn("Permit warm-up stopped early: {}", e.getMessage());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        step.tag("connections", String.valueOf(connections));
+        step.tag("checks", String.valueOf(cached));
+        step.tag("iterations", String.valueOf(iterations));
+        step.end();
+        logger.info("Permit warm-up finished in {}ms: {} PDP connections, {} checks cached, {} check iterations",
+                elapsedMs, connections, cached, iterations);
+        var result = Health.up()
+                .withDetail("warmUp", failure == null ? "complete" : "incomplete")
+                .withDetail("durationMs", elapsedMs)
+                .withDetail("connections", connections)
+                .withDetail("checks", cached)
+                .withDetail("iterations", iterations);
+        if (failure != null) {
+            result.withDetail("error", failure);
+        }
+        // A PDP that is down should not keep the pod out of rotation forever; requests will report it
+        health = result.build();
+    }
+
+    private List<Check> checks() {
+        var checks = new ArrayList<Check>();
+        for (var userKey : new LinkedHashSet<>(settings.getUsers())) {
+            var user = userService.authenticate("Bearer " + userKey);
+            for (var resourceType : settings.getResourceTypes()) {
+                var resource = new Resource.Builder(resourceType).withTenant(Blog.DEFAULT_TENANT).build();
+                for (var action : settings.getActions()) {
+                    checks.add(new Check(user, action, resource));
+                }
+            }
+        }
+        return checks;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.permitjavaexample.tenant;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.exception.BadRequestException;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.model.Blog;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the tenant a request works in. With {@code permit.tenancy.enabled} it is taken from the
+ * {@code permit.tenancy.header} request header; otherwise, or if the header is missing, it is the
+ * default tenant. Only known tenants are served: the default tenant, those listed in
+ * {@code permit.tenancy.tenants} and those of the {@code permit.tenancy.shards}.
+ */
+@Component
+public class TenantResolver {
+    // Tenant keys also name the tenant's store directory
+    private static final Pattern TENANT = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,63}");
+
+    private final boolean enabled;
+    private final String header;
+    private final Set<String> known = new HashSet<>();
+
+    public TenantResolver(PermitProperties properties) {
+        var tenancy = properties.getTenancy();
+        this.enabled = tenancy.isEnabled();
+        this.header = tenancy.getHeader();
+        known.add(Blog.DEFAULT_TENANT);
+        if (enabled) {
+            known.addAll(tenancy.getTenants());
+            tenancy.getShards().values().forEach(shard -> known.addAll(shard.getTenants()));
+        }
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * The tenant named by a header value, which may be {@code null}.
+     */
+    public String resolve(String value) {
+        if (!enabled || value == null || value.isEmpty()) {
+            return Blog.DEFAULT_TENANT;
+        }
+        if (!TENANT.matcher(value).matches()) {
+            throw new BadRequestException("Invalid tenant " + value);
+        }
+        if (!isKnown(value)) {
+            throw new ResourceNotFoundException("Tenant " + value + " not found");
+        }
+        return value;
+    }
+
+    public boolean isKnown(String tenant) {
+        return known.contains(tenant);
+    }
+}
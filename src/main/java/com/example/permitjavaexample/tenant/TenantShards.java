@@ -0,0 +1,134 @@
+package com.example.permitjavaexample.tenant;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.DurableBlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One blog store per tenant. The default tenant is served by the {@link BlogRepository} bean;
+ * every other known tenant gets its own store on its first write, under
+ * {@code store.directory/tenants} when the store is durable. Unknown tenants are not found, so
+ * no store is opened for them. Durable shards already on disk are read at startup, so new blog
+ * and comment ids continue after the highest any tenant has used and Permit resource keys stay
+ * unique across tenants; shards of tenants no longer known are closed again.
+ */
+@Component
+public class TenantShards implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TenantShards.class);
+
+    // Read by tenants that have not written anything yet, never written to
+    private static final BlogRepository NO_BLOGS = new InMemoryBlogRepository();
+
+    private final StoreProperties properties;
+    private final TenantResolver tenantResolver;
+    private final Path tenantsDirectory;
+    private final Map<String, BlogRepository> repositories = new ConcurrentHashMap<>();
+    private int retiredLastBlogId;
+    private int retiredLastCommentId;
+
+    public TenantShards(BlogRepository blogRepository, StoreProperties properties, TenantResolver tenantResolver) throws IOException {
+        this.properties = properties;
+        this.tenantResolver = tenantResolver;
+        this.tenantsDirectory = Path.of(properties.getDirectory(), "tenants");
+        repositories.put(Blog.DEFAULT_TENANT, blogRepository);
+        if (properties.isDurable() && Files.isDirectory(tenantsDirectory)) {
+            try (var directories = Files.list(tenantsDirectory)) {
+                for (var directory : directories.filter(Files::isDirectory).toList()) {
+                    var tenant = directory.getFileName().toString();
+                    var repository = new DurableBlogRepository(properties, directory, tenant);
+                    if (tenantResolver.isKnown(tenant)) {
+                        repositories.put(tenant, repository);
+                        continue;
+                    }
+                    logger.warn("Not serving the blog store of unknown tenant {}", tenant);
+                    retiredLastBlogId = Math.max(retiredLastBlogId, repository.lastBlogId());
+                    retiredLastCommentId = Math.max(retiredLastCommentId, repository.lastCommentId());
+                    repository.close();
+                }
+            }
+            logger.info("Opened {} tenant blog stores", repositories.size() - 1);
+        }
+    }
+
+    /**
+     * The store to write the tenant's blogs to, opened on first use.
+     */
+    public BlogRepository repository(String tenant) {
+        var repository = repositories.get(tenant);
+        if (repository != null) {
+            return repository;
+        }
+        requireKnown(tenant);
+        return repositories.computeIfAbsent(tenant, this::create);
+    }
+
+    /**
+     * The store to read the tenant's blogs from, which is empty if nothing was written to the
+     * tenant yet. Reading never opens a store.
+     */
+    public BlogRepository readRepository(String tenant) {
+        var repository = repositories.get(tenant);
+        if (repository != null) {
+            return repository;
+        }
+        requireKnown(tenant);
+        return NO_BLOGS;
+    }
+
+    private void requireKnown(String tenant) {
+        if (!tenantResolver.isKnown(tenant)) {
+            throw new ResourceNotFoundException("Tenant " + tenant + " not found");
+        }
+    }
+
+    private BlogRepository create(String tenant) {
+        if (!properties.isDurable()) {
+            return new InMemoryBlogRepository();
+        }
+        try {
+            return new DurableBlogRepository(properties, tenantsDirectory.resolve(tenant), tenant);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open blog store for tenant " + tenant, e);
+        }
+    }
+
+    /**
+     * The highest blog id ever stored by any tenant.
+     */
+    public int lastBlogId() {
+        return Math.max(retiredLastBlogId, repositories.values().stream().mapToInt(BlogRepository::lastBlogId).max().orElse(0));
+    }
+
+    /**
+     * The highest comment id ever stored by any tenant.
+     */
+    public int lastCommentId() {
+        return Math.max(retiredLastCommentId, repositories.values().stream().mapToInt(BlogRepository::lastCommentId).max().orElse(0));
+    }
+
+    /**
+     * Closes the tenant stores opened here; the default tenant's store is a bean of its own.
+     */
+    @Override
+    public void close() throws IOException {
+        for (var entry : repositories.entrySet()) {
+            if (!entry.getKey().equals(Blog.DEFAULT_TENANT) && entry.getValue() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -52,22 +52,22 @@ public class BlogControllerIntegrationTests {
         baseUrl = "http://localhost:" + port;
 
         viewer1 = userService.signup("viewer-user-1");
-        userService.assignRole(viewer1, "viewer");
+        userService.assignRole(viewer1, "default", "viewer");
 
         viewer2 = userService.signup("viewer-user-2");
-        userService.assignRole(viewer2, "viewer");
+        userService.assignRole(viewer2, "default", "viewer");
 
         editor1 = userService.signup("editor-user-1");
-        userService.assignRole(editor1, "editor");
+        userService.assignRole(editor1, "default", "editor");
 
         editor2 = userService.signup("editor-user-2");
-        userService.assignRole(editor2, "editor");
+        userService.assignRole(editor2, "default", "editor");
 
         admin = userService.signup("admin-user-1");
-        userService.assignRole(admin, "admin");
+        userService.assignRole(admin, "default", "admin");
 
-        blog1 = blogService.addBlog(editor1, "First Blog Post");
-        blog2 = blogService.addBlog(editor2, "Second Blog Post");
+        blog1 = blogService.addBlog(editor1, "default", "First Blog Post");
+        blog2 = blogService.addBlog(editor2, "default", "Second Blog Post");
     }
 
     void cleanup() {
@@ -130,6 +130,35 @@ public class BlogControllerIntegrationTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void revalidatesBlogWithETag() {
+        // viewer1 keeps a blog until a comment changes it, unknown users are refused even with a current ETag
+        var blog = blogService.addBlog(editor1, "default", "Cached Content");
+        var first = sendRequest("/api/blogs/" + blog.getId(), HttpMethod.GET, viewer1);
+        var etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        var unchanged = sendConditionalRequest("/api/blogs/" + blog.getId(), viewer1, etag);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+
+        blogService.addComment(viewer1, "default", blog.getId(), "Test Content");
+        var changed = sendConditionalRequest("/api/blogs/" + blog.getId(), viewer1, etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(changed.getBody()).contains("Test Content");
+
+        var unknown = sendConditionalRequest("/api/blogs/" + blog.getId(), new User.Builder("someone").build(), changed.getHeaders().getETag());
+        assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    ResponseEntity<String> sendConditionalRequest(String url, User user, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + user.getKey());
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(baseUrl + url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
     @Test
     void getBlogByIdNotFound() {
         // viewer1 fails to get non-existent blog
@@ -175,7 +204,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOwnBlog() {
         // editor1 deletes their own blog
-        var blog = blogService.addBlog(editor1, "Test Content");
+        var blog = blogService.addBlog(editor1, "default", "Test Content");
         var response = sendRequest("/api/blogs/" + blog.getId(), HttpMethod.DELETE, editor1);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
@@ -190,7 +219,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOthersBlogAsAdmin() {
         // admin deletes editor1's blog
-        var blog = blogService.addBlog(editor1, "Test Content");
+        var blog = blogService.addBlog(editor1, "default", "Test Content");
         var response = sendRequest("/api/blogs/" + blog.getId(), HttpMethod.DELETE, admin);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
@@ -213,7 +242,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void updateOwnComment() {
         // viewer1 updates their own comment on their own blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.PUT, viewer1, "Updated Content");
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
@@ -221,7 +250,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOwnComment() {
         // viewer1 deletes their own comment on blog1
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.DELETE, viewer1);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
@@ -229,7 +258,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void updateOthersCommentForbidden() {
         // viewer2 fails to update viewer1's comment on viewer1's blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.PUT, viewer2, "Updated Content");
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
@@ -237,7 +266,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOthersCommentOnOwnBlog() throws InterruptedException {
         // editor1 deletes viewer1's comment on editor1's blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         Thread.sleep(1000); // Wait for PDP to sync
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.DELETE, editor1);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -246,7 +275,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void updateOthersCommentOnOwnBlogForbidden() {
         // editor1 deletes viewer1's comment on editor1's blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.PUT, editor1, "Updated Content");
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
@@ -254,7 +283,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOthersCommentOnOthersBlogsForbidden() {
         // editor2 fails to delete viewer1's comment on editor1's blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.DELETE, editor2);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
@@ -262,7 +291,7 @@ public class BlogControllerIntegrationTests {
     @Test
     void deleteOthersCommentOnOthersBlogAsAdmin() {
         // admin deletes viewer1's comment on editor1's blog
-        var comment = blogService.addComment(viewer1, blog1.getId(), "Test Content");
+        var comment = blogService.addComment(viewer1, "default", blog1.getId(), "Test Content");
         var response = sendRequest("/api/blogs/" + blog1.getId() + "/comment/" + comment.getId(), HttpMethod.DELETE, admin);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
@@ -0,0 +1,75 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.load.FakePermitServer;
+import io.permit.sdk.Permit;
+import io.permit.sdk.PermitConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticatedUserCacheTests {
+    // Nothing listens here, so loading users from Permit fails fast
+    private final Permit permit = new Permit(new PermitConfig.Builder("test").withApiUrl("http://127.0.0.1:1").build());
+
+    private AuthenticatedUserCache cache(boolean enrich) {
+        var properties = new PermitProperties();
+        properties.getUserCache().setEnrich(enrich);
+        return new AuthenticatedUserCache(permit, new LocalAuthorizationState(), properties);
+    }
+
+    @Test
+    void resolvesBearerTokensOnce() {
+        var cache = cache(false);
+
+        var user = cache.resolve("Bearer user-1");
+
+        assertThat(user.getKey()).isEqualTo("user-1");
+        assertThat(cache.resolve("Bearer user-1")).isSameAs(user);
+        assertThat(cache.resolve("user-2").getKey()).isEqualTo("user-2");
+        assertThat(cache.resolve("Bearer ")).isNull();
+    }
+
+    @Test
+    void invalidatesByUserKey() {
+        var cache = cache(false);
+        var user = cache.resolve("Bearer user-1");
+        var other = cache.resolve("Bearer user-2");
+
+        cache.invalidate("user-1");
+
+        assertThat(cache.resolve("Bearer user-1")).isNotSameAs(user);
+        assertThat(cache.resolve("Bearer user-2")).isSameAs(other);
+    }
+
+    @Test
+    void dropsUsersStillLoadingWhenInvalidated() throws Exception {
+        try (var server = new FakePermitServer()) {
+            server.putUser("user-1", Map.of());
+            server.setApiLatency(Duration.ofMillis(300));
+            var properties = new PermitProperties();
+            var cache = new AuthenticatedUserCache(new Permit(new PermitConfig.Builder("test").withApiUrl(server.url()).build()),
+                    new LocalAuthorizationState(), properties);
+
+            var loading = CompletableFuture.supplyAsync(() -> cache.resolve("Bearer user-1"));
+            Thread.sleep(100);
+            // As after a role change that the load above may have read too early
+            cache.invalidate("user-1");
+
+            assertThat(loading.get(10, TimeUnit.SECONDS).getKey()).isEqualTo("user-1");
+            assertThat(cache.getIfPresent("Bearer user-1")).isNull();
+        }
+    }
+
+    @Test
+    void fallsBackToBareUserWhenPermitIsUnreachable() {
+        var user = cache(true).resolve("Bearer user-1");
+
+        assertThat(user.getKey()).isEqualTo("user-1");
+    }
+}
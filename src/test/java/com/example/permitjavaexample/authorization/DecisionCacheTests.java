@@ -0,0 +1,91 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionCacheTests {
+    private final DecisionCache decisionCache = new DecisionCache(new PermitProperties());
+    private final User user = new User.Builder("user-1").build();
+
+    private Resource blog(String key, String author) {
+        var attributes = new HashMap<String, Object>();
+        attributes.put("author", author);
+        return new Resource.Builder("blog").withKey(key).withAttributes(attributes).build();
+    }
+
+    @Test
+    void cachesDecisionsPerResource() {
+        decisionCache.put(DecisionKey.of(user, "update", blog("1", "user-1")), true);
+
+        assertThat(decisionCache.get(DecisionKey.of(user, "update", blog("1", "user-1")))).isTrue();
+        assertThat(decisionCache.get(DecisionKey.of(user, "delete", blog("1", "user-1")))).isNull();
+        assertThat(decisionCache.get(DecisionKey.of(user, "update", blog("2", "user-1")))).isNull();
+        assertThat(decisionCache.get(DecisionKey.of(user, "update", blog("1", "user-2")))).isNull();
+        assertThat(decisionCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidatesByUserAndResource() {
+        var other = new User.Builder("user-2").build();
+        decisionCache.put(DecisionKey.of(user, "update", blog("1", "user-1")), true);
+        decisionCache.put(DecisionKey.of(other, "update", blog("1", "user-1")), false);
+        decisionCache.put(DecisionKey.of(other, "update", blog("2", "user-1")), false);
+
+        decisionCache.invalidateUser("user-1");
+        assertThat(decisionCache.get(DecisionKey.of(user, "update", blog("1", "user-1")))).isNull();
+        assertThat(decisionCache.get(DecisionKey.of(other, "update", blog("1", "user-1")))).isFalse();
+
+        decisionCache.invalidateResource("blog", "1");
+        assertThat(decisionCache.get(DecisionKey.of(other, "update", blog("1", "user-1")))).isNull();
+        assertThat(decisionCache.get(DecisionKey.of(other, "update", blog("2", "user-1")))).isFalse();
+    }
+
+    @Test
+    void keepsAttributeSetsWithEqualHashesApart() {
+        // "Aa" and "BB" have the same hash code, and so do these maps
+        var aa = new HashMap<String, Object>();
+        aa.put("department", "Aa");
+        var bb = new HashMap<String, Object>();
+        bb.put("department", "BB");
+        assertThat(aa.hashCode()).isEqualTo(bb.hashCode());
+        var first = new User.Builder("user-1").withAttributes(aa).build();
+        var second = new User.Builder("user-1").withAttributes(bb).build();
+
+        decisionCache.put(DecisionKey.of(first, "update", blog("1", "user-1")), true);
+        assertThat(decisionCache.get(DecisionKey.of(second, "update", blog("1", "user-1")))).isNull();
+
+        // The key holds its own copy, so later changes to the attributes do not move it
+        aa.put("department", "CC");
+        var unchanged = new HashMap<String, Object>();
+        unchanged.put("department", "Aa");
+        assertThat(decisionCache.get(DecisionKey.of(new User.Builder("user-1").withAttributes(unchanged).build(), "update", blog("1", "user-1")))).isTrue();
+    }
+
+    @Test
+    void dropsDecisionsOfChecksStartedBeforeInvalidation() {
+        var key = DecisionKey.of(user, "update", blog("1", "user-1"));
+        var otherBlog = DecisionKey.of(user, "update", blog("2", "user-1"));
+
+        long started = decisionCache.generation();
+        decisionCache.invalidateResource("blog", "1");
+        decisionCache.put(key, true, started);
+        decisionCache.put(otherBlog, true, started);
+        assertThat(decisionCache.get(key)).isNull();
+        assertThat(decisionCache.get(otherBlog)).isTrue();
+
+        started = decisionCache.generation();
+        decisionCache.invalidateUser("user-1");
+        decisionCache.put(key, true, started);
+        assertThat(decisionCache.get(key)).isNull();
+
+        decisionCache.put(key, true, decisionCache.generation());
+        assertThat(decisionCache.get(key)).isTrue();
+        assertThat(decisionCache.get(otherBlog)).isNull();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightChecksTests {
+    private final InFlightChecks inFlightChecks = new InFlightChecks(new PermitProperties(), new SimpleMeterRegistry());
+    private final DecisionKey key = DecisionKey.of(new User.Builder("user-1").build(), "read", new Resource.Builder("blog").withKey("1").build());
+
+    @Test
+    void collapsesConcurrentIdenticalChecks() throws Exception {
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        int callers = 50;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> inFlightChecks.decide(key, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return true;
+                })));
+            }
+            while (inFlightChecks.collapsedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (var future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(inFlightChecks.collapsedCount()).isEqualTo(callers - 1);
+        assertThat(inFlightChecks.size()).isZero();
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        assertThatThrownBy(() -> inFlightChecks.decide(key, () -> {
+            throw new IllegalStateException("PDP unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(inFlightChecks.decide(key, () -> false)).isFalse();
+    }
+
+    @Test
+    void asyncCallersShareTheCheckInFlight() {
+        var pending = new CompletableFuture<Boolean>();
+        var calls = new AtomicInteger();
+
+        var first = inFlightChecks.decideAsync(key, () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        var second = inFlightChecks.decideAsync(key, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(false);
+        });
+        pending.complete(true);
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isTrue();
+        assertThat(calls).hasValue(1);
+        assertThat(inFlightChecks.size()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
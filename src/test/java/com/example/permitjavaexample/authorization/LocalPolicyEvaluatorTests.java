@@ -0,0 +1,88 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalPolicyEvaluatorTests {
+    private final LocalAuthorizationState state = new LocalAuthorizationState();
+    private LocalPolicyEvaluator localPolicy;
+
+    private final User viewer = new User.Builder("viewer-1").build();
+    private final User editor = new User.Builder("editor-1").build();
+    private final User otherEditor = new User.Builder("editor-2").build();
+    private final User admin = new User.Builder("admin-1").build();
+    private final Blog blog = new Blog(1, "editor-1", "Blog");
+    private final Comment comment = new Comment(1, "viewer-1", "Comment");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        localPolicy = new LocalPolicyEvaluator(new PermitProperties(), state, new DefaultResourceLoader(), new ObjectMapper());
+        state.assignTenantRole("default", "viewer-1", "viewer");
+        state.assignTenantRole("default", "editor-1", "editor");
+        state.assignTenantRole("default", "editor-2", "editor");
+        state.assignTenantRole("default", "admin-1", "admin");
+    }
+
+    @Test
+    void appliesTenantRoles() {
+        var blogs = new Resource.Builder("blog").build();
+        assertThat(localPolicy.check(viewer, "read", blogs)).isTrue();
+        assertThat(localPolicy.check(viewer, "create", blogs)).isFalse();
+        assertThat(localPolicy.check(editor, "create", blogs)).isTrue();
+        assertThat(localPolicy.check(admin, "delete", blog.toResource())).isTrue();
+        assertThat(localPolicy.check(new User.Builder("unknown").build(), "read", blogs)).isFalse();
+    }
+
+    @Test
+    void keepsTenantRolesApart() {
+        state.assignTenantRole("acme", "viewer-1", "editor");
+        var acmeBlogs = new Resource.Builder("blog").withTenant("acme").build();
+        assertThat(localPolicy.check(viewer, "create", acmeBlogs)).isTrue();
+        assertThat(localPolicy.check(viewer, "create", new Resource.Builder("blog").build())).isFalse();
+        assertThat(localPolicy.check(editor, "create", acmeBlogs)).isFalse();
+    }
+
+    @Test
+    void appliesOwnResourceSets() {
+        assertThat(localPolicy.check(editor, "update", blog.toResource())).isTrue();
+        assertThat(localPolicy.check(otherEditor, "update", blog.toResource())).isFalse();
+        assertThat(localPolicy.check(viewer, "update", comment.toResource())).isTrue();
+        assertThat(localPolicy.check(otherEditor, "update", comment.toResource())).isFalse();
+    }
+
+    @Test
+    void derivesModeratorFromBlogAuthor() {
+        assertThat(localPolicy.check(editor, "delete", comment.toResource())).isFalse();
+
+        state.assignRole("editor-1", "author", "blog:1");
+        state.addRelationship("blog:1", "parent", "comment:1");
+        assertThat(localPolicy.check(editor, "delete", comment.toResource())).isTrue();
+        assertThat(localPolicy.check(editor, "update", comment.toResource())).isFalse();
+        assertThat(localPolicy.check(otherEditor, "delete", comment.toResource())).isFalse();
+
+        state.removeResource("blog:1");
+        assertThat(localPolicy.check(editor, "delete", comment.toResource())).isFalse();
+    }
+
+    @Test
+    void reportsShadowDisagreements() {
+        localPolicy.shadow(viewer, "read", blog.toResource(), true);
+        localPolicy.shadow(viewer, "delete", blog.toResource(), true);
+
+        assertThat(localPolicy.agreements()).isEqualTo(1);
+        assertThat(localPolicy.disagreements()).isEqualTo(1);
+        assertThat(localPolicy.recentDisagreements()).containsExactly(
+                new LocalPolicyEvaluator.Disagreement("viewer-1", "delete", "blog:1", true, false));
+    }
+}
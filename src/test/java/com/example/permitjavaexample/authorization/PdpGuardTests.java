@@ -0,0 +1,94 @@
+package com.example.permitjavaexample.authorization;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.metrics.PermitMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdpGuardTests {
+    private final User user = new User.Builder("user-1").build();
+    private final Resource blog = new Resource.Builder("blog").withKey("1").build();
+
+    private PdpGuard guard(PermitProperties properties, DecisionCache decisionCache) {
+        var registry = new SimpleMeterRegistry();
+        return new PdpGuard(properties, decisionCache, new PermitMetrics(registry), registry);
+    }
+
+    @Test
+    void opensAfterRepeatedFailures() {
+        var properties = new PermitProperties();
+        properties.getResilience().setSlidingWindowSize(4);
+        properties.getResilience().setMinimumNumberOfCalls(4);
+        var guard = guard(properties, new DecisionCache(properties));
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new IOException("connection refused");
+            })).isInstanceOfSatisfying(PdpUnavailableException.class, e -> assertThat(e.getReason()).isEqualTo(PdpGuard.ERROR));
+        }
+
+        assertThat(guard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guard.call(() -> true))
+                .isInstanceOfSatisfying(PdpUnavailableException.class, e -> assertThat(e.getReason()).isEqualTo(PdpGuard.CIRCUIT_OPEN));
+    }
+
+    @Test
+    void doesNotCountConnectionRejectionsAsFailures() {
+        var properties = new PermitProperties();
+        properties.getResilience().setSlidingWindowSize(4);
+        properties.getResilience().setMinimumNumberOfCalls(4);
+        var guard = guard(properties, new DecisionCache(properties));
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new PdpUnavailableException(PdpGuard.NO_CONNECTION, null);
+            })).isInstanceOfSatisfying(PdpUnavailableException.class, e -> assertThat(e.getReason()).isEqualTo(PdpGuard.NO_CONNECTION));
+            assertThat(guard.callAsync(() -> CompletableFuture.<Boolean>failedFuture(new PdpUnavailableException(PdpGuard.NO_CONNECTION, null))))
+                    .failsWithin(Duration.ofSeconds(1))
+                    .withThrowableOfType(ExecutionException.class)
+                    .havingCause()
+                    .isInstanceOfSatisfying(PdpUnavailableException.class, e -> assertThat(e.getReason()).isEqualTo(PdpGuard.NO_CONNECTION));
+        }
+
+        assertThat(guard.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fallsBackToLastKnownDecisions() {
+        var properties = new PermitProperties();
+        var decisionCache = new DecisionCache(properties);
+        var guard = guard(properties, decisionCache);
+        var update = DecisionKey.of(user, "update", blog);
+        var delete = DecisionKey.of(user, "delete", blog);
+        decisionCache.put(update, true);
+        var unavailable = new PdpUnavailableException(PdpGuard.CIRCUIT_OPEN, null);
+
+        assertThat(guard.fallback(update, unavailable)).isTrue();
+        assertThat(guard.fallback(delete, unavailable)).isFalse();
+
+        decisionCache.invalidateUser("user-1");
+        assertThat(guard.fallback(update, unavailable)).isFalse();
+    }
+
+    @Test
+    void allowReadOnlyFallback() {
+        var properties = new PermitProperties();
+        properties.getResilience().setFallback(PermitProperties.Resilience.Fallback.ALLOW_READ_ONLY);
+        var guard = guard(properties, new DecisionCache(properties));
+        var unavailable = new PdpUnavailableException(PdpGuard.BULKHEAD_FULL, null);
+
+        assertThat(guard.fallback(DecisionKey.of(user, "read", blog), unavailable)).isTrue();
+        assertThat(guard.fallback(DecisionKey.of(user, "update", blog), unavailable)).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ImportControllerTests {
+    @TempDir
+    Path journalDir;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @BeforeAll
+    void setUpAll() throws IOException {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=import-test",
+                "permit.localPolicy.mode=local",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).run();
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        var userService = context.getBean(UserService.class);
+        userService.assignRole(userService.signup("import-admin"), Blog.DEFAULT_TENANT, "admin");
+        userService.assignRole(userService.signup("import-editor"), Blog.DEFAULT_TENANT, "editor");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private HttpResponse<String> post(String user, String contentType, String body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/import"))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (user != null) {
+            request.header("Authorization", "Bearer " + user);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String user, String path) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + user).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void importsNdjsonAndJsonArrays() throws Exception {
+        var ndjson = post("import-admin", "application/x-ndjson", """
+                {"author":"author-1","content":"From NDJSON","comments":[{"author":"reader-1","content":"Nice"}]}
+                {"author":"author-2","content":"Also from NDJSON"}
+                """);
+        assertThat(ndjson.statusCode()).isEqualTo(200);
+        var job = objectMapper.readTree(ndjson.body());
+        assertThat(job.path("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.path("blogs").asLong()).isEqualTo(2);
+        assertThat(job.path("comments").asLong()).isEqualTo(1);
+
+        var array = post("import-admin", "application/json", """
+                [{"author":"author-3","content":"From an array"}]
+                """);
+        assertThat(array.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(array.body()).path("blogs").asLong()).isEqualTo(1);
+
+        var found = get("import-admin", "/api/import/" + job.path("id").asText());
+        assertThat(found.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(found.body()).path("id").asText()).isEqualTo(job.path("id").asText());
+        assertThat(objectMapper.readTree(get("import-admin", "/api/import").body()).size()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void onlyAdminsImport() throws Exception {
+        var body = """
+                {"author":"author-1","content":"Not imported"}
+                """;
+        assertThat(post("import-editor", "application/x-ndjson", body).statusCode()).isEqualTo(403);
+        assertThat(post(null, "application/x-ndjson", body).statusCode()).isEqualTo(401);
+        assertThat(get("import-editor", "/api/import").statusCode()).isEqualTo(403);
+    }
+
+    @Test
+    void rejectsInvalidItems() throws Exception {
+        assertThat(post("import-admin", "application/x-ndjson", """
+                {"author":"author-1"}
+                """).statusCode()).isEqualTo(400);
+        assertThat(post("import-admin", "application/x-ndjson", "{\"author\":").statusCode()).isEqualTo(400);
+        assertThat(get("import-admin", "/api/import/no-such-import").statusCode()).isEqualTo(404);
+    }
+}
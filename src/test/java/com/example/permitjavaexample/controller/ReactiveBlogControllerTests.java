@@ -0,0 +1,111 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveBlogControllerTests {
+    @TempDir
+    Path journalDir;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @BeforeAll
+    void setUpAll() throws IOException {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=reactive-blog-test",
+                "permit.localPolicy.mode=local",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).profiles("reactive").run();
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        // The reactive stack shares the blocking UserService for Permit API writes
+        var userService = context.getBean(UserService.class);
+        userService.assignRole(userService.signup("reactive-viewer"), Blog.DEFAULT_TENANT, "viewer");
+        userService.assignRole(userService.signup("reactive-editor"), Blog.DEFAULT_TENANT, "editor");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private HttpResponse<String> send(String user, HttpRequest.Builder request) throws IOException, InterruptedException {
+        if (user != null) {
+            request.header("Authorization", "Bearer " + user);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String user, String path) throws IOException, InterruptedException {
+        return send(user, HttpRequest.newBuilder(URI.create(baseUrl + path)));
+    }
+
+    private HttpResponse<String> post(String user, String path, String body) throws IOException, InterruptedException {
+        return send(user, HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    @Test
+    void writesNeedAnAuthorizedUser() throws Exception {
+        assertThat(post(null, "/api/blogs", "Anonymous").statusCode()).isEqualTo(401);
+        assertThat(post("reactive-viewer", "/api/blogs", "By a viewer").statusCode()).isEqualTo(403);
+
+        var created = post("reactive-editor", "/api/blogs", "By an editor");
+        assertThat(created.statusCode()).isEqualTo(201);
+        int id = objectMapper.readTree(created.body()).path("id").asInt();
+
+        var page = get("reactive-viewer", "/api/blogs");
+        assertThat(page.statusCode()).isEqualTo(200);
+        assertThat(page.body()).contains("By an editor");
+        assertThat(post("reactive-viewer", "/api/blogs/" + id + "/comment", "A viewer may comment").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void servesBlogsWithEtags() throws Exception {
+        var created = post("reactive-editor", "/api/blogs", "Cached by clients");
+        int id = objectMapper.readTree(created.body()).path("id").asInt();
+
+        var blog = get("reactive-viewer", "/api/blogs/" + id);
+        assertThat(blog.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(blog.body()).path("content").asText()).isEqualTo("Cached by clients");
+        var etag = blog.headers().firstValue("ETag").orElseThrow();
+
+        var revalidated = send("reactive-viewer", HttpRequest.newBuilder(URI.create(baseUrl + "/api/blogs/" + id)).header("If-None-Match", etag));
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(revalidated.body()).isEmpty();
+    }
+
+    @Test
+    void reportsMissingBlogs() throws Exception {
+        assertThat(get("reactive-viewer", "/api/blogs/999999").statusCode()).isEqualTo(404);
+        assertThat(get(null, "/api/blogs/999999").statusCode()).isEqualTo(401);
+    }
+}
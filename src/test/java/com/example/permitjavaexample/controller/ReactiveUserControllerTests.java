@@ -0,0 +1,79 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveUserControllerTests {
+    @TempDir
+    Path journalDir;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @BeforeAll
+    void setUpAll() throws IOException {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=reactive-user-test",
+                "permit.localPolicy.mode=local",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).profiles("reactive").run();
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private HttpResponse<String> post(String user, String path, String body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.ofString(body));
+        if (user != null) {
+            request.header("Authorization", "Bearer " + user);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void signsUpAndAssignsRoles() throws Exception {
+        var signup = post(null, "/api/users/signup", "reactive-signup");
+        assertThat(signup.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(signup.body()).path("key").asText()).isEqualTo("reactive-signup");
+
+        // Without a role the user may not write, with the editor role they may
+        assertThat(post("reactive-signup", "/api/blogs", "Before the role").statusCode()).isEqualTo(403);
+        assertThat(post("reactive-signup", "/api/users/assign-role", "editor").statusCode()).isEqualTo(200);
+        assertThat(post("reactive-signup", "/api/blogs", "After the role").statusCode()).isEqualTo(201);
+    }
+
+    @Test
+    void refusesRoleAssignmentWithoutAUser() throws Exception {
+        assertThat(post(null, "/api/users/assign-role", "admin").statusCode()).isEqualTo(401);
+    }
+}
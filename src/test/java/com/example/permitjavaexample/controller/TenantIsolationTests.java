@@ -0,0 +1,112 @@
+package com.example.permitjavaexample.controller;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Blogs written in one tenant are not visible from another, and unknown tenants are not served.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TenantIsolationTests {
+    @TempDir
+    Path directory;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @BeforeAll
+    void setUpAll() throws IOException {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=tenant-test",
+                "permit.localPolicy.mode=local",
+                "permit.warmUp.enabled=false",
+                "permit.tenancy.enabled=true",
+                "permit.tenancy.tenants=acme,globex",
+                "permit.outbox.journal=" + directory.resolve("permit-outbox.journal"),
+                "store.durable=true",
+                "store.directory=" + directory.resolve("store")
+        ).run();
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        var userService = context.getBean(UserService.class);
+        var editor = userService.signup("tenant-editor");
+        userService.assignRole(editor, "acme", "editor");
+        userService.assignRole(editor, "globex", "viewer");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private HttpResponse<String> send(String tenant, HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.header("Authorization", "Bearer tenant-editor").header("X-Tenant", tenant).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String tenant, String path) throws IOException, InterruptedException {
+        return send(tenant, HttpRequest.newBuilder(URI.create(baseUrl + path)));
+    }
+
+    private HttpResponse<String> post(String tenant, String path, String body) throws IOException, InterruptedException {
+        return send(tenant, HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    @Test
+    void keepsTenantsApart() throws Exception {
+        var created = post("acme", "/api/blogs", "Only in acme");
+        assertThat(created.statusCode()).isEqualTo(201);
+        int id = objectMapper.readTree(created.body()).path("id").asInt();
+
+        assertThat(get("acme", "/api/blogs/" + id).statusCode()).isEqualTo(200);
+        assertThat(get("globex", "/api/blogs/" + id).statusCode()).isEqualTo(404);
+        assertThat(get("globex", "/api/blogs/" + id + "/comment").statusCode()).isEqualTo(404);
+        assertThat(post("globex", "/api/blogs/" + id + "/comment", "Across tenants").statusCode()).isEqualTo(404);
+        var globexBlogs = get("globex", "/api/blogs");
+        assertThat(globexBlogs.statusCode()).isEqualTo(200);
+        assertThat(globexBlogs.body()).doesNotContain("Only in acme");
+
+        // Roles are per tenant too: an editor in acme only views in globex
+        assertThat(post("globex", "/api/blogs", "Not an editor here").statusCode()).isEqualTo(403);
+    }
+
+    @Test
+    void doesNotServeUnknownTenants() throws Exception {
+        assertThat(get("initech", "/api/blogs").statusCode()).isEqualTo(404);
+        assertThat(get("initech", "/api/blogs/1").statusCode()).isEqualTo(404);
+        assertThat(post("initech", "/api/blogs", "Nowhere").statusCode()).isEqualTo(404);
+        assertThat(directory.resolve("store").resolve("tenants").resolve("initech")).doesNotExist();
+    }
+
+    @Test
+    void readsOpenNoStore() throws Exception {
+        assertThat(get("globex", "/api/blogs").statusCode()).isEqualTo(200);
+        assertThat(get("globex", "/api/blogs/999999").statusCode()).isEqualTo(404);
+        assertThat(directory.resolve("store").resolve("tenants").resolve("globex")).doesNotExist();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.ChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogTests {
+
+    private static void append(ChangeLog log, int blogs) {
+        for (int i = 1; i <= blogs; i++) {
+            var blog = new Blog(i, "editor-1", "Blog " + i);
+            log.append(ChangeEvent.of("created", blog, blog.getContent()), blog.toResource(), null);
+        }
+    }
+
+    @Test
+    void readsChangesInOrder() {
+        var log = new ChangeLog(8);
+        assertThat(log.last()).isZero();
+        assertThat(log.after(0, 10)).isEmpty();
+
+        append(log, 5);
+        assertThat(log.last()).isEqualTo(5);
+        assertThat(log.after(0, 10)).extracting(Change::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(log.after(2, 2)).extracting(change -> change.event().blogId()).containsExactly(3, 4);
+        assertThat(log.after(5, 10)).isEmpty();
+    }
+
+    @Test
+    void reportsChangesNoLongerHeld() {
+        var log = new ChangeLog(4);
+        append(log, 10);
+        assertThat(log.after(5, 10)).isNull();
+        assertThat(log.after(6, 10)).extracting(Change::sequence).containsExactly(7L, 8L, 9L, 10L);
+        // An id from the future, such as one handed out before a restart
+        assertThat(log.after(11, 10)).isNull();
+    }
+}
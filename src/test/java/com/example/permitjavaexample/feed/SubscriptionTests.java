@@ -0,0 +1,188 @@
+package com.example.permitjavaexample.feed;
+
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.config.FeedProperties;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.metrics.AuthorizationTimeTracker;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.ChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionTests {
+    private static final String TENANT = "default";
+    private static final User READER = new User.Builder("reader").build();
+
+    private record Received(String kind, String id, ChangeEvent event) {
+    }
+
+    private final Set<String> denied = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> checks = new ConcurrentHashMap<>();
+    private final DecisionCache decisionCache = new DecisionCache(new PermitProperties());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BlockingQueue<Received> received = new LinkedBlockingQueue<>();
+    private ChangeFeed feed;
+
+    private ChangeFeed feed(int bufferSize) {
+        var properties = new FeedProperties();
+        properties.setBufferSize(bufferSize);
+        feed = new ChangeFeed((user, requests) -> {
+            var permitted = new boolean[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                var resource = requests.get(i).resource();
+                var key = resource.getType() + ":" + resource.getKey();
+                checks.computeIfAbsent(key, ignored -> new AtomicInteger()).incrementAndGet();
+                permitted[i] = !denied.contains(key);
+            }
+            return permitted;
+        }, decisionCache, new AuthorizationTimeTracker(), properties, registry);
+        return feed;
+    }
+
+    @AfterEach
+    void close() {
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    private Subscription subscribe(String lastEventId) {
+        return feed.subscribe(READER, TENANT, lastEventId, new Subscription.Listener() {
+            @Override
+            public void event(String id, ChangeEvent event) {
+                received.add(new Received("event", id, event));
+            }
+
+            @Override
+            public void reset(String id) {
+                received.add(new Received("reset", id, null));
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+
+            @Override
+            public void complete() {
+            }
+        });
+    }
+
+    private void publish(int blogId, String action) {
+        var blog = new Blog(blogId, "editor-1", "Blog " + blogId);
+        feed.publish(TENANT, ChangeEvent.of(action, blog, blog.getContent()), blog.toResource(), null);
+    }
+
+    private Received next() throws InterruptedException {
+        var next = received.poll(5, TimeUnit.SECONDS);
+        assertThat(next).as("no message within 5s").isNotNull();
+        return next;
+    }
+
+    @Test
+    void sendsOnlyEventsTheUserMayRead() throws InterruptedException {
+        feed(100);
+        denied.add("blog:2");
+        subscribe(null).request(10);
+
+        publish(1, "created");
+        publish(2, "created");
+        publish(3, "created");
+
+        assertThat(next().event().blogId()).isEqualTo(1);
+        var third = next();
+        assertThat(third.event().blogId()).isEqualTo(3);
+        assertThat(third.id()).isEqualTo(feed.id(3));
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void resumesAfterTheLastEventId() throws InterruptedException {
+        feed(100);
+        for (int i = 1; i <= 4; i++) {
+            publish(i, "created");
+        }
+
+        subscribe(feed.id(2)).request(10);
+
+        assertThat(next().event().blogId()).isEqualTo(3);
+        assertThat(next().event().blogId()).isEqualTo(4);
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void resetsWhenTheChangesWereDropped() throws InterruptedException {
+        feed(4);
+        for (int i = 1; i <= 10; i++) {
+            publish(i, "created");
+        }
+
+        subscribe(feed.id(2)).request(10);
+        assertThat(next()).isEqualTo(new Received("reset", feed.id(10), null));
+        assertThat(registry.get("blog.feed.resets").counter().count()).isEqualTo(1);
+
+        publish(11, "created");
+        assertThat(next().event().blogId()).isEqualTo(11);
+    }
+
+    @Test
+    void resetsOnAnIdFromBeforeARestart() throws InterruptedException {
+        feed(100);
+        publish(1, "created");
+
+        subscribe("0-1").request(10);
+
+        assertThat(next()).isEqualTo(new Received("reset", feed.id(1), null));
+    }
+
+    @Test
+    void sendsNoMoreThanRequested() throws InterruptedException {
+        feed(100);
+        var subscription = subscribe(null);
+        for (int i = 1; i <= 3; i++) {
+            publish(i, "created");
+        }
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        subscription.request(1);
+        assertThat(next().event().blogId()).isEqualTo(1);
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        subscription.request(2);
+        assertThat(next().event().blogId()).isEqualTo(2);
+        assertThat(next().event().blogId()).isEqualTo(3);
+    }
+
+    @Test
+    void checksAgainOnceTheUserIsInvalidated() throws InterruptedException {
+        feed(100);
+        subscribe(null).request(10);
+
+        publish(1, "created");
+        assertThat(next().event().blogId()).isEqualTo(1);
+        publish(1, "updated");
+        assertThat(next().event().action()).isEqualTo("updated");
+        assertThat(checks.get("blog:1")).hasValue(1);
+
+        // Such as a role change taking the user's access away
+        denied.add("blog:1");
+        decisionCache.invalidateUser(READER.getKey());
+        publish(1, "updated");
+        publish(2, "created");
+
+        assertThat(next().event().blogId()).isEqualTo(2);
+        assertThat(checks.get("blog:1")).hasValue(2);
+    }
+}
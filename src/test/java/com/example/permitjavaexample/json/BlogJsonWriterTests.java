@@ -0,0 +1,102 @@
+package com.example.permitjavaexample.json;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlogJsonWriterTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlogJsonWriter writer = new BlogJsonWriter(objectMapper, new StoreProperties());
+    private final BlogJsonWriter uncached = new BlogJsonWriter(objectMapper, uncachedProperties());
+
+    private static StoreProperties uncachedProperties() {
+        var properties = new StoreProperties();
+        properties.setJsonCacheBytes(0);
+        return properties;
+    }
+
+    private static byte[] write(BlogJsonWriter writer, Blog blog) throws IOException {
+        var out = new ByteArrayOutputStream();
+        writer.write(blog, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(Iterable<byte[]> fragments) throws IOException {
+        var out = new ByteArrayOutputStream();
+        for (var fragment : fragments) {
+            out.write(fragment);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void writesTheBytesJacksonWrites() throws IOException {
+        var blog = new Blog(1, "editor-1", "Quotes \" and\nnewlines, café 😀");
+        assertThat(write(writer, blog)).isEqualTo(objectMapper.writeValueAsBytes(blog));
+        assertThat(write(uncached, blog)).isEqualTo(objectMapper.writeValueAsBytes(blog));
+
+        blog.addComment(new Comment(1, "viewer-1", "First"));
+        blog.addComment(new Comment(2, "viewer-2", "<b>\\Second</b>\t\u0001"));
+        var jackson = objectMapper.writeValueAsBytes(blog);
+        assertThat(write(writer, blog)).isEqualTo(jackson);
+        assertThat(write(uncached, blog)).isEqualTo(jackson);
+        assertThat(concat(writer.fragments(blog))).isEqualTo(jackson);
+        assertThat(concat(uncached.fragments(blog))).isEqualTo(jackson);
+        assertThat(uncached.fragments(blog)).hasSize(6);
+
+        var comment = blog.findComment(2).orElseThrow();
+        var out = new ByteArrayOutputStream();
+        writer.write(comment, out);
+        assertThat(out.toByteArray()).isEqualTo(objectMapper.writeValueAsBytes(comment));
+    }
+
+    @Test
+    void reusesFragmentsUntilContentChanges() throws IOException {
+        var blog = new Blog(1, "editor-1", "Original");
+        var comment = new Comment(1, "viewer-1", "Original comment");
+        blog.addComment(comment);
+        write(uncached, blog);
+        var head = blog.cachedJson();
+        var commentJson = comment.cachedJson();
+        assertThat(head).isNotNull();
+        assertThat(commentJson).isNotNull();
+
+        write(uncached, blog);
+        assertThat(blog.cachedJson()).isSameAs(head);
+        assertThat(comment.cachedJson()).isSameAs(commentJson);
+
+        blog.setContent("Edited");
+        blog.updateComment(comment, "Edited comment");
+        assertThat(blog.cachedJson()).isNull();
+        assertThat(comment.cachedJson()).isNull();
+        assertThat(write(uncached, blog)).isEqualTo(objectMapper.writeValueAsBytes(blog));
+
+        blog.removeComment(1);
+        assertThat(write(uncached, blog)).isEqualTo(objectMapper.writeValueAsBytes(blog));
+    }
+
+    @Test
+    void assemblesEachBlogOncePerVersion() throws IOException {
+        var blog = new Blog(1, "editor-1", "Original");
+        var comment = new Comment(1, "viewer-1", "Original comment");
+        blog.addComment(comment);
+        var first = writer.json(blog);
+        assertThat(writer.json(blog)).isSameAs(first);
+        assertThat(writer.fragments(blog)).containsExactly(first);
+
+        blog.updateComment(comment, "Edited comment");
+        var edited = writer.json(blog);
+        assertThat(edited).isNotSameAs(first).isEqualTo(objectMapper.writeValueAsBytes(blog));
+        assertThat(writer.json(blog)).isSameAs(edited);
+
+        blog.addComment(new Comment(2, "viewer-2", "Another"));
+        assertThat(writer.json(blog)).isEqualTo(objectMapper.writeValueAsBytes(blog));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.permitjavaexample.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for both the PDP and the Permit REST API, on one port. Serves the check
+ * endpoints and the users, role assignment, resource instance and relationship tuple endpoints
+ * the SDK calls, keeping just enough state to answer reads. Checks are permitted, except for a
+ * share that can be set to be denied at random. Latency and the share of requests failing with
+ * 503 can be set separately for the PDP and the API.
+ */
+public class FakePermitServer implements AutoCloseable {
+    private static final Pattern FACTS = Pattern.compile("/v2/facts/[^/]+/[^/]+/(users|resource_instances|role_assignments|relationship_tuples)(?:/([^/]+))?(?:/([^/]+))?");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ObjectNode> users = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private volatile Duration pdpLatency = Duration.ZERO;
+    private volatile Duration apiLatency = Duration.ZERO;
+    private volatile double pdpErrorRate;
+    private volatile double apiErrorRate;
+    private volatile double denyRate;
+
+    public FakePermitServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setPdpLatency(Duration pdpLatency) {
+        this.pdpLatency = pdpLatency;
+    }
+
+    public void setApiLatency(Duration apiLatency) {
+        this.apiLatency = apiLatency;
+    }
+
+    public void setPdpErrorRate(double pdpErrorRate) {
+        this.pdpErrorRate = pdpErrorRate;
+    }
+
+    public void setApiErrorRate(double apiErrorRate) {
+        this.apiErrorRate = apiErrorRate;
+    }
+
+    /**
+     * The share of checks, between 0 and 1, that are denied.
+     */
+    public void setDenyRate(double denyRate) {
+        this.denyRate = denyRate;
+    }
+
+    /**
+     * Adds a user with attributes, as if it had been synced earlier.
+     */
+    public void putUser(String key, Map<String, Object> attributes) {
+        var user = withIds(objectMapper.createObjectNode().put("key", key));
+        user.set("attributes", objectMapper.valueToTree(attributes));
+        user.putArray("roles");
+        users.put(key, user);
+    }
+
+    /**
+     * Requests served so far, by route.
+     */
+    public Map<String, Long> requestCounts() {
+        var counts = new TreeMap<String, Long>();
+        requests.forEach((route, count) -> counts.put(route, count.sum()));
+        return counts;
+    }
+
+    public void resetCounts() {
+        requests.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var method = exchange.getRequestMethod();
+            var path = exchange.getRequestURI().getPath();
+            var body = exchange.getRequestBody().readAllBytes();
+            boolean pdp = path.startsWith("/allowed") || path.equals("/healthy");
+            sleep(pdp ? pdpLatency : apiLatency);
+            if (ThreadLocalRandom.current().nextDouble() < (pdp ? pdpErrorRate : apiErrorRate)) {
+                count(method + " " + (pdp ? path : "api") + " (injected error)");
+                respond(exchange, 503, "{\"error\":\"injected\"}");
+                return;
+            }
+            if (pdp) {
+                count(method + " " + path);
+                respond(exchange, 200, pdp(path, body));
+                return;
+            }
+            if (path.equals("/v2/api-key/scope")) {
+                count("GET scope");
+                respond(exchange, 200, "{\"organization_id\":\"org\",\"project_id\":\"project\",\"environment_id\":\"env\"}");
+                return;
+            }
+            Matcher facts = FACTS.matcher(path);
+            if (!facts.matches()) {
+                count(method + " unknown");
+                respond(exchange, 404, "{\"error\":\"not found\"}");
+                return;
+            }
+            var collection = facts.group(1);
+            var id = facts.group(2);
+            var sub = facts.group(3);
+            count(method + " " + collection + (id == null ? "" : "/{" + ("bulk".equals(id) ? "bulk" : "id") + "}") + (sub == null ? "" : "/" + sub));
+            respond(exchange, method.equals("DELETE") ? 204 : 200, api(method, collection, id, sub, body));
+        }
+    }
+
+    private String pdp(String path, byte[] body) throws IOException {
+        if (path.equals("/healthy")) {
+            return "{\"status\":\"ok\"}";
+        }
+        if (path.endsWith("/bulk")) {
+            int queries = objectMapper.readTree(body).size();
+            var decisions = new StringJoiner(",", "{\"allow\":[", "]}");
+            for (int i = 0; i < queries; i++) {
+                decisions.add(decision());
+            }
+            return decisions.toString();
+        }
+        return decision();
+    }
+
+    private String decision() {
+        boolean denied = denyRate > 0 && ThreadLocalRandom.current().nextDouble() < denyRate;
+        return denied ? "{\"allow\":false}" : "{\"allow\":true}";
+    }
+
+    private String api(String method, String collection, String id, String sub, byte[] body) throws IOException {
+        if (method.equals("DELETE")) {
+            return "";
+        }
+        if (collection.equals("users") && method.equals("GET") && id != null) {
+            var user = users.get(id);
+            return user == null ? "{}" : objectMapper.writeValueAsString(user);
+        }
+        JsonNode request = body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+        if (!(request instanceof ObjectNode entity) || "bulk".equals(id)) {
+            return "{}";
+        }
+        if (collection.equals("users") && id == null) {
+            entity.putArray("roles");
+            users.put(entity.path("key").asText(), withIds(entity));
+        } else if (collection.equals("users") && "roles".equals(sub)) {
+            var user = users.computeIfAbsent(id, key -> withIds(objectMapper.createObjectNode().put("key", key)));
+            synchronized (user) {
+                user.withArray("roles").addObject()
+                        .put("role", entity.path("role").asText())
+                        .put("tenant", entity.path("tenant").asText("default"));
+            }
+        }
+        return objectMapper.writeValueAsString(withIds(entity));
+    }
+
+    private static ObjectNode withIds(ObjectNode entity) {
+        entity.put("id", UUID.randomUUID().toString());
+        entity.put("organization_id", "org");
+        entity.put("project_id", "project");
+        entity.put("environment_id", "env");
+        return entity;
+    }
+
+    private void count(String route) {
+        requests.computeIfAbsent(route, key -> new LongAdder()).increment();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (status == 204) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.permitjavaexample.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Runs load from virtual-thread workers for a fixed time and reports throughput and latency per
+ * operation, plus the heap allocated and GC time spent per request. Allocation is measured for
+ * the whole process, so it includes the load generator.
+ */
+final class LoadHarness {
+
+    /**
+     * One iteration of a worker's loop, recording each request it makes.
+     */
+    interface Worker {
+        void iterate(Recorder recorder) throws Exception;
+    }
+
+    record OperationResult(String operation, long requests, long denied, long errors, double throughput, double p50Ms, double p99Ms, double maxMs) {
+        @Override
+        public String toString() {
+            return String.format("  %-16s requests=%8d denied=%6d errors=%5d throughput=%9.1f req/s p50=%8.2fms p99=%8.2fms max=%8.2fms",
+                    operation, requests, denied, errors, throughput, p50Ms, p99Ms, maxMs);
+        }
+    }
+
+    record Report(String name, List<OperationResult> operations, double allocatedKbPerRequest, long gcCount, long gcMillis) {
+        long errors() {
+            return operations.stream().mapToLong(OperationResult::errors).sum();
+        }
+
+        long denied() {
+            return operations.stream().mapToLong(OperationResult::denied).sum();
+        }
+
+        @Override
+        public String toString() {
+            var lines = new StringBuilder(String.format("%s allocated=%.1f KB/req gc=%d (%d ms)%n", name, allocatedKbPerRequest, gcCount, gcMillis));
+            operations.forEach(operation -> lines.append(operation).append(System.lineSeparator()));
+            return lines.toString();
+        }
+    }
+
+    private LoadHarness() {
+    }
+
+    /**
+     * Runs {@code concurrency} workers, made by {@code workers} from their index, for
+     * {@code warmup} unmeasured and then for {@code duration}.
+     */
+    static Report run(String name, int concurrency, Duration warmup, Duration duration, IntFunction<Worker> workers) throws Exception {
+        drive(concurrency, warmup, workers);
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        var started = System.nanoTime();
+        var recorded = drive(concurrency, duration, workers);
+        var elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+        var operations = new ArrayList<OperationResult>();
+        long requests = 0;
+        for (var entry : recorded.entrySet()) {
+            var samples = entry.getValue();
+            var latencies = samples.latencies();
+            Arrays.sort(latencies);
+            requests += latencies.length + samples.errors();
+            operations.add(new OperationResult(entry.getKey(), latencies.length, samples.denied(), samples.errors(), latencies.length / elapsedSeconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0)));
+        }
+        return new Report(name, operations, requests == 0 ? 0 : allocated / 1024.0 / requests,
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+    }
+
+    private record Samples(long[] latencies, long denied, long errors) {
+    }
+
+    /**
+     * Latencies of answered requests, how many of them were denied, and the number of failed
+     * ones, by operation. Each worker has its own.
+     */
+    static final class Recorder {
+        private final Map<String, long[]> latencies = new TreeMap<>();
+        private final Map<String, Integer> counts = new TreeMap<>();
+        private final Map<String, Long> denied = new TreeMap<>();
+        private final Map<String, Long> errors = new TreeMap<>();
+
+        void success(String operation, long nanos) {
+            var recorded = latencies.computeIfAbsent(operation, key -> new long[256]);
+            int count = counts.getOrDefault(operation, 0);
+            if (count == recorded.length) {
+                recorded = Arrays.copyOf(recorded, count * 2);
+                latencies.put(operation, recorded);
+            }
+            recorded[count] = nanos;
+            counts.put(operation, count + 1);
+        }
+
+        /**
+         * A request answered with a denial, which is counted as answered.
+         */
+        void denied(String operation, long nanos) {
+            success(operation, nanos);
+            denied.merge(operation, 1L, Long::sum);
+        }
+
+        void error(String operation) {
+            errors.merge(operation, 1L, Long::sum);
+            latencies.computeIfAbsent(operation, key -> new long[256]);
+        }
+
+        private void mergeInto(Map<String, Samples> samples) {
+            for (var operation : latencies.keySet()) {
+                var mine = new Samples(Arrays.copyOf(latencies.get(operation), counts.getOrDefault(operation, 0)),
+                        denied.getOrDefault(operation, 0L), errors.getOrDefault(operation, 0L));
+                samples.merge(operation, mine, (a, b) -> {
+                    var merged = Arrays.copyOf(a.latencies(), a.latencies().length + b.latencies().length);
+                    System.arraycopy(b.latencies(), 0, merged, a.latencies().length, b.latencies().length);
+                    return new Samples(merged, a.denied() + b.denied(), a.errors() + b.errors());
+                });
+            }
+        }
+    }
+
+    private static Map<String, Samples> drive(int concurrency, Duration duration, IntFunction<Worker> workers) throws Exception {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var samples = new ConcurrentHashMap<String, Samples>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                var worker = workers.apply(i);
+                futures.add(executor.submit(() -> {
+                    var recorder = new Recorder();
+                    while (System.nanoTime() < deadline) {
+                        worker.iterate(recorder);
+                    }
+                    recorder.mergeInto(samples);
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        return new TreeMap<>(samples);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
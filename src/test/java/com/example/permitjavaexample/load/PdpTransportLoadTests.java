@@ -0,0 +1,70 @@
+package com.example.permitjavaexample.load;
+
+import com.example.permitjavaexample.authorization.PdpClient;
+import com.example.permitjavaexample.config.PermitClientConfig;
+import com.example.permitjavaexample.config.PermitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.permit.sdk.Permit;
+import io.permit.sdk.PermitConfig;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares tail latency of PDP checks made through the Permit SDK against the pooled
+ * {@link PdpClient} transport, both talking to a {@link FakePermitServer}.
+ */
+@Tag("load")
+class PdpTransportLoadTests {
+    private static final int[] PDP_LATENCIES_MS = {0, 5, 20};
+    private static final int CONCURRENCY = 200;
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    interface Checker {
+        boolean check(User user, String action, Resource resource) throws Exception;
+    }
+
+    @Test
+    void compareTransports() throws Exception {
+        var results = new ArrayList<LoadHarness.Report>();
+        try (var pdp = new FakePermitServer()) {
+            var properties = new PermitProperties();
+            properties.setApiKey("load-test");
+            properties.setPdpUrl(pdp.url());
+            var permit = new Permit(new PermitConfig.Builder("load-test").withPdpAddress(pdp.url()).build());
+            var pdpClient = new PdpClient(properties, new ObjectMapper(), new PermitClientConfig().pdpHttpClient(properties),
+                    new SimpleMeterRegistry());
+            for (int latency : PDP_LATENCIES_MS) {
+                pdp.setPdpLatency(Duration.ofMillis(latency));
+                for (var transport : List.of("sdk", "pooled")) {
+                    Checker checker = transport.equals("sdk") ? permit::check : pdpClient::check;
+                    results.add(LoadHarness.run(String.format("%-6s pdp=%3dms", transport, latency), CONCURRENCY, WARMUP, DURATION, i -> {
+                        var user = new User.Builder("load-user-" + i).build();
+                        var resource = new Resource.Builder("blog").withKey(String.valueOf(i)).build();
+                        return recorder -> {
+                            var start = System.nanoTime();
+                            try {
+                                checker.check(user, "read", resource);
+                            } catch (Exception e) {
+                                recorder.error("check");
+                                return;
+                            }
+                            recorder.success("check", System.nanoTime() - start);
+                        };
+                    }));
+                }
+            }
+        }
+        results.forEach(System.out::println);
+        assertThat(results).allSatisfy(result -> assertThat(result.errors()).isZero());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.permitjavaexample.load;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.repository.BlogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request throughput and tail latency of the platform thread pool, virtual threads and
+ * the WebFlux stack while the PDP answers with increasing latency.
+ */
+@Tag("load")
+class VirtualThreadLoadTests {
+    private static final int[] PDP_LATENCIES_MS = {0, 10, 50, 200};
+    private static final int BLOGS = 100;
+    private static final int CONCURRENCY = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        var results = new ArrayList<LoadHarness.Report>();
+        try (var pdp = new FakePermitServer();
+             var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            for (var stack : List.of("platform", "virtual", "reactive")) {
+                try (var context = start(pdp, stack)) {
+                    var blogRepository = context.getBean(BlogRepository.class);
+                    for (int id = 1; id <= BLOGS; id++) {
+                        blogRepository.save(new Blog(id, "load-editor", "Content " + id));
+                    }
+                    var baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                    for (int latency : PDP_LATENCIES_MS) {
+                        pdp.setPdpLatency(Duration.ofMillis(latency));
+                        results.add(LoadHarness.run(String.format("%-8s pdp=%4dms", stack, latency), CONCURRENCY, WARMUP, DURATION,
+                                i -> recorder -> {
+                                    var id = ThreadLocalRandom.current().nextInt(1, BLOGS + 1);
+                                    WorkloadDriver.send(client, "load-viewer", recorder, "getBlog",
+                                            HttpRequest.newBuilder(URI.create(baseUrl + "/api/blogs/" + id)));
+                                }));
+                    }
+                }
+            }
+        }
+        results.forEach(System.out::println);
+        assertThat(results).allSatisfy(result -> assertThat(result.errors()).isZero());
+    }
+
+    private static ConfigurableApplicationContext start(FakePermitServer pdp, String stack) {
+        return new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + pdp.url(),
+                "permit.apiUrl=" + pdp.url(),
+                "permit.apiKey=load-test",
+                "permit.decisionCache.enabled=false",
+                "permit.userCache.enrich=false",
+                "store.durable=false",
+                "spring.threads.virtual.enabled=" + stack.equals("virtual")
+        ).profiles(stack.equals("reactive") ? new String[]{"reactive"} : new String[0]).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.permitjavaexample.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a running app with one of the scripted {@link Workload}s through the {@link LoadHarness}.
+ */
+class WorkloadDriver {
+    enum Workload {
+        /** Mostly single-blog reads, some pages and comment lists. */
+        READ_HEAVY,
+        /** Each iteration creates, updates and deletes one of the worker's own blogs. */
+        WRITE_HEAVY,
+        /** Comments piling onto a handful of hot blogs, with their comment lists being read. */
+        COMMENT_STORM
+    }
+
+    private static final int HOT_BLOGS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int blogs;
+    private final int concurrency;
+
+    WorkloadDriver(String baseUrl, int blogs, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.blogs = blogs;
+        this.concurrency = concurrency;
+    }
+
+    LoadHarness.Report run(String name, Workload workload, Duration warmup, Duration duration) throws Exception {
+        try (var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            return LoadHarness.run(name, concurrency, warmup, duration, i -> {
+                var user = "load-user-" + (i % 50);
+                return recorder -> {
+                    switch (workload) {
+                        case READ_HEAVY -> read(client, user, recorder);
+                        case WRITE_HEAVY -> write(client, user, recorder);
+                        case COMMENT_STORM -> comment(client, user, recorder);
+                    }
+                };
+            });
+        }
+    }
+
+    private void read(HttpClient client, String user, LoadHarness.Recorder recorder) {
+        var random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        var id = random.nextInt(1, blogs + 1);
+        if (roll < 80) {
+            send(client, user, recorder, "getBlog", get("/api/blogs/" + id));
+        } else if (roll < 95) {
+            send(client, user, recorder, "listBlogs", get("/api/blogs?limit=20"));
+        } else {
+            send(client, user, recorder, "getComments", get("/api/blogs/" + id + "/comment"));
+        }
+    }
+
+    private void write(HttpClient client, String user, LoadHarness.Recorder recorder) {
+        var created = send(client, user, recorder, "createBlog", post("/api/blogs", "Load test blog"));
+        if (created == null) {
+            return;
+        }
+        try {
+            var id = objectMapper.readTree(created).path("id").asInt();
+            send(client, user, recorder, "updateBlog", put("/api/blogs/" + id, "Updated load test blog"));
+            send(client, user, recorder, "deleteBlog", HttpRequest.newBuilder(URI.create(baseUrl + "/api/blogs/" + id)).DELETE());
+        } catch (Exception e) {
+            recorder.error("createBlog");
+        }
+    }
+
+    private void comment(HttpClient client, String user, LoadHarness.Recorder recorder) {
+        var random = ThreadLocalRandom.current();
+        var id = random.nextInt(1, HOT_BLOGS + 1);
+        if (random.nextInt(100) < 70) {
+            send(client, user, recorder, "addComment", post("/api/blogs/" + id + "/comment", "Load test comment"));
+        } else {
+            send(client, user, recorder, "getComments", get("/api/blogs/" + id + "/comment"));
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path));
+    }
+
+    private HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private HttpRequest.Builder put(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).PUT(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    /**
+     * Sends the request as {@code user}; the response body on a 2xx, {@code null} otherwise. A
+     * 403 is recorded as a denial, any other status as an error.
+     */
+    static byte[] send(HttpClient client, String user, LoadHarness.Recorder recorder, String operation, HttpRequest.Builder request) {
+        var start = System.nanoTime();
+        try {
+            var response = client.send(request.header("Authorization", "Bearer " + user).header("Content-Type", "text/plain").build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 403) {
+                recorder.denied(operation, System.nanoTime() - start);
+                return null;
+            }
+            if (response.statusCode() / 100 != 2) {
+                recorder.error(operation);
+                return null;
+            }
+            recorder.success(operation, System.nanoTime() - start);
+            return response.body();
+        } catch (Exception e) {
+            recorder.error(operation);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.permitjavaexample.load;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.WorkloadDriver.Workload;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.repository.BlogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the scripted workloads against the app wired to a {@link FakePermitServer} for both the
+ * PDP and the Permit API: with a healthy Permit, with a share of checks denied, and with injected
+ * latency and errors.
+ */
+@Tag("load")
+class WorkloadLoadTests {
+    private static final int BLOGS = 100;
+    private static final int CONCURRENCY = 200;
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration DURATION = Duration.ofSeconds(10);
+    private static final double DENY_RATE = 0.1;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void runWorkloads() throws Exception {
+        var healthy = new ArrayList<LoadHarness.Report>();
+        var denying = new ArrayList<LoadHarness.Report>();
+        var degraded = new ArrayList<LoadHarness.Report>();
+        try (var permit = new FakePermitServer(); var context = start(permit)) {
+            var blogRepository = context.getBean(BlogRepository.class);
+            for (int id = 1; id <= BLOGS; id++) {
+                blogRepository.save(new Blog(id, "load-editor", "Content " + id));
+            }
+            var driver = new WorkloadDriver("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port"), BLOGS, CONCURRENCY);
+            for (var workload : Workload.values()) {
+                healthy.add(driver.run(workload.name(), workload, WARMUP, DURATION));
+            }
+            System.out.println("Permit requests: " + permit.requestCounts());
+
+            permit.resetCounts();
+            permit.setDenyRate(DENY_RATE);
+            for (var workload : Workload.values()) {
+                denying.add(driver.run(workload.name() + " (denying)", workload, WARMUP, DURATION));
+            }
+            System.out.println("Permit requests: " + permit.requestCounts());
+
+            permit.resetCounts();
+            permit.setDenyRate(0);
+            permit.setPdpLatency(Duration.ofMillis(20));
+            permit.setApiLatency(Duration.ofMillis(100));
+            permit.setPdpErrorRate(0.01);
+            permit.setApiErrorRate(0.05);
+            for (var workload : Workload.values()) {
+                degraded.add(driver.run(workload.name() + " (degraded)", workload, WARMUP, DURATION));
+            }
+            System.out.println("Permit requests: " + permit.requestCounts());
+        }
+        healthy.forEach(System.out::println);
+        denying.forEach(System.out::println);
+        degraded.forEach(System.out::println);
+        // Degraded runs are reported only, how many requests fail depends on the resilience settings
+        assertThat(healthy).allSatisfy(report -> assertThat(report.errors()).isZero());
+        assertThat(denying).allSatisfy(report -> assertThat(report.errors()).isZero());
+        assertThat(denying).anySatisfy(report -> assertThat(report.denied()).isPositive());
+    }
+
+    private ConfigurableApplicationContext start(FakePermitServer permit) {
+        return new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=load-test",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal"),
+                "store.durable=false"
+        ).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.permitjavaexample.metrics;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizationTimeTrackerTests {
+
+    private static void busy(AuthorizationTimeTracker tracker) {
+        long start = tracker.start();
+        while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2)) {
+            Thread.onSpinWait();
+        }
+        tracker.stop(start);
+    }
+
+    @Test
+    void countsChecksOnOtherThreadsThatBindTheTiming() throws Exception {
+        var tracker = new AuthorizationTimeTracker();
+        var timing = new AuthorizationTimeTracker.Timing();
+        var pool = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture.runAsync(() -> {
+                var previous = tracker.bind(timing);
+                try {
+                    busy(tracker);
+                } finally {
+                    tracker.restore(previous);
+                }
+            }, pool).get();
+            assertThat(timing.elapsedNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(2));
+
+            // Nothing stays behind on the pool thread
+            long counted = timing.elapsedNanos();
+            CompletableFuture.runAsync(() -> {
+                assertThat(tracker.current()).isNull();
+                busy(tracker);
+            }, pool).get();
+            assertThat(timing.elapsedNanos()).isEqualTo(counted);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void countsReactiveChecksTowardTheTimingInTheContext() {
+        var tracker = new AuthorizationTimeTracker();
+        var timing = new AuthorizationTimeTracker.Timing();
+        var decision = tracker.time(Mono.delay(Duration.ofMillis(5)).thenReturn(true));
+
+        assertThat(decision.contextWrite(context -> context.put(AuthorizationTimeTracker.Timing.class, timing)).block()).isTrue();
+        assertThat(timing.elapsedNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        // Without a timing in the context the check is not counted anywhere
+        assertThat(decision.block()).isTrue();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DurableBlogRepositoryTests {
+    @TempDir
+    Path directory;
+
+    private StoreProperties properties(long segmentSize) {
+        var properties = new StoreProperties();
+        properties.setDurable(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(segmentSize);
+        return properties;
+    }
+
+    @Test
+    void recoversBlogsCommentsAndIds() throws IOException {
+        try (var repository = new DurableBlogRepository(properties(1024 * 1024))) {
+            var first = new Blog(1, "editor-1", "First");
+            var second = new Blog(2, "editor-2", "Second");
+            repository.save(first);
+            repository.save(second);
+            repository.updateContent(first, "First, edited");
+            var comment = new Comment(1, "viewer-1", "Nice");
+            repository.addComment(first, comment);
+            repository.updateComment(first, comment, "Very nice");
+            repository.addComment(first, new Comment(2, "viewer-2", "Meh"));
+            repository.removeComment(first, 2);
+            repository.addComment(second, new Comment(3, "viewer-1", "Gone with the blog"));
+            repository.deleteById(2);
+        }
+
+        try (var repository = new DurableBlogRepository(properties(1024 * 1024))) {
+            assertThat(repository.findAll()).extracting(Blog::getId).containsExactly(1);
+            var blog = repository.findById(1).orElseThrow();
+            assertThat(blog.getContent()).isEqualTo("First, edited");
+            assertThat(blog.getComments()).extracting(Comment::getContent).containsExactly("Very nice");
+            assertThat(repository.lastBlogId()).isEqualTo(2);
+            assertThat(repository.lastCommentId()).isEqualTo(3);
+            assertThat(repository.search("edited nice meh gone second", 0, 10))
+                    .allMatch(hit -> hit.blogId() == 1)
+                    .extracting(SearchHit::commentId).containsExactlyInAnyOrder(null, 1);
+        }
+    }
+
+    @Test
+    void recoversBatchSaves() throws IOException {
+        try (var repository = new DurableBlogRepository(properties(4096))) {
+            var blogs = IntStream.rangeClosed(1, 500).mapToObj(id -> {
+                var blog = new Blog(id, "editor-" + (id % 4), "Imported " + id);
+                blog.addComment(new Comment(id, "viewer", "Comment " + id));
+                return blog;
+            }).toList();
+            repository.saveAll(blogs);
+        }
+
+        try (var repository = new DurableBlogRepository(properties(4096))) {
+            assertThat(repository.count()).isEqualTo(500);
+            assertThat(repository.findById(42).orElseThrow().getComments()).extracting(Comment::getContent).containsExactly("Comment 42");
+            assertThat(repository.lastCommentId()).isEqualTo(500);
+        }
+    }
+
+    @Test
+    void keepsBatchSavesAcrossSnapshots() throws Exception {
+        // Small segments, so snapshots are taken while batches are being written
+        try (var repository = new DurableBlogRepository(properties(2048));
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 40).forEach(batch -> executor.execute(() -> repository.saveAll(IntStream.rangeClosed(1, 50)
+                    .mapToObj(i -> new Blog(batch * 50 + i, "editor-" + (batch % 4), "Imported " + (batch * 50 + i)))
+                    .toList())));
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        try (var repository = new DurableBlogRepository(properties(2048))) {
+            assertThat(repository.count()).isEqualTo(2_000);
+            assertThat(repository.findById(1_234).orElseThrow().getContent()).isEqualTo("Imported 1234");
+        }
+    }
+
+    @Test
+    void appliesNothingWhenTheLogWriteFails() throws IOException {
+        var repository = new DurableBlogRepository(properties(1024 * 1024));
+        var blog = new Blog(1, "editor-1", "First");
+        blog.addComment(new Comment(1, "viewer-1", "Nice"));
+        repository.save(blog);
+        repository.close();
+
+        assertThatThrownBy(() -> repository.save(new Blog(2, "editor-1", "Second"))).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> repository.updateContent(blog, "Edited")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> repository.addComment(blog, new Comment(2, "viewer-2", "Meh"))).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> repository.removeComment(blog, 1)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> repository.deleteById(1)).isInstanceOf(RuntimeException.class);
+
+        assertThat(repository.findAll()).extracting(Blog::getId).containsExactly(1);
+        assertThat(blog.getContent()).isEqualTo("First");
+        assertThat(blog.getComments()).extracting(Comment::getContent).containsExactly("Nice");
+    }
+
+    @Test
+    void recoversFromSnapshotsAndConcurrentWriters() throws Exception {
+        try (var repository = new DurableBlogRepository(properties(4096));
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.rangeClosed(1, 2_000).forEach(id -> executor.execute(() -> {
+                var blog = new Blog(id, "editor-" + (id % 4), "Content " + id);
+                repository.save(blog);
+                repository.addComment(blog, new Comment(id, "viewer", "Comment " + id));
+                if (id % 2 == 0) {
+                    repository.deleteById(id);
+                }
+            }));
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        try (var repository = new DurableBlogRepository(properties(4096))) {
+            assertThat(repository.count()).isEqualTo(1_000);
+            assertThat(repository.findById(7).orElseThrow().getComments()).extracting(Comment::getContent).containsExactly("Comment 7");
+            assertThat(repository.findById(8)).isEmpty();
+            assertThat(repository.lastBlogId()).isEqualTo(2_000);
+            assertThat(repository.lastCommentId()).isEqualTo(2_000);
+        }
+    }
+}
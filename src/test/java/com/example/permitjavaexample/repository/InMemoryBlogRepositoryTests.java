@@ -0,0 +1,134 @@
+package com.example.permitjavaexample.repository;
+
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryBlogRepositoryTests {
+    private final InMemoryBlogRepository repository = new InMemoryBlogRepository();
+
+    @Test
+    void indexesBlogsByIdAndAuthor() {
+        repository.save(new Blog(2, "editor-1", "Second"));
+        repository.save(new Blog(1, "editor-1", "First"));
+        repository.save(new Blog(3, "editor-2", "Third"));
+
+        assertThat(repository.findById(3)).get().extracting(Blog::getAuthor).isEqualTo("editor-2");
+        assertThat(repository.findAll()).extracting(Blog::getId).containsExactly(1, 2, 3);
+        assertThat(repository.findByAuthor("editor-1")).extracting(Blog::getId).containsExactly(1, 2);
+
+        assertThat(repository.deleteById(1)).isPresent();
+        assertThat(repository.deleteById(1)).isEmpty();
+        assertThat(repository.findByAuthor("editor-1")).extracting(Blog::getId).containsExactly(2);
+        assertThat(repository.findByAuthor("unknown")).isEmpty();
+    }
+
+    @Test
+    void pagesInIdOrder() {
+        IntStream.rangeClosed(1, 10).forEach(id -> repository.save(new Blog(id, "editor-" + (id % 2), "Content")));
+        repository.deleteById(4);
+
+        assertThat(repository.findPage(0, 3)).extracting(Blog::getId).containsExactly(1, 2, 3);
+        assertThat(repository.findPage(3, 3)).extracting(Blog::getId).containsExactly(5, 6, 7);
+        assertThat(repository.findPage(8, 5)).extracting(Blog::getId).containsExactly(9, 10);
+        assertThat(repository.findPageByAuthor("editor-0", 2, 2)).extracting(Blog::getId).containsExactly(6, 8);
+        assertThat(repository.findPageByAuthor("unknown", 0, 2)).isEmpty();
+    }
+
+    @Test
+    void searchesBlogsAndComments() {
+        var first = new Blog(1, "editor-1", "Caching authorization decisions");
+        var second = new Blog(2, "editor-2", "Authorization, authorization everywhere");
+        repository.save(first);
+        repository.save(second);
+        repository.save(new Blog(3, "editor-1", "Something else entirely"));
+        repository.addComment(first, new Comment(1, "viewer-1", "Great post about caches"));
+
+        assertThat(repository.search("authorization", 0, 10)).extracting(SearchHit::blogId).containsExactly(2, 1);
+        assertThat(repository.search("AUTHORIZATION", 1, 10)).extracting(SearchHit::blogId).containsExactly(1);
+        assertThat(repository.search("cach*", 0, 10)).extracting(SearchHit::commentId).containsExactlyInAnyOrder(null, 1);
+        assertThat(repository.search("missing", 0, 10)).isEmpty();
+
+        repository.updateContent(second, "Nothing to see");
+        repository.updateComment(first, first.findComment(1).orElseThrow(), "Edited");
+        assertThat(repository.search("authorization cach*", 0, 10)).extracting(SearchHit::blogId).containsExactly(1);
+        assertThat(repository.search("edited", 0, 10)).extracting(SearchHit::commentId).containsExactly(1);
+
+        repository.deleteById(1);
+        assertThat(repository.search("caching edited", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void supportsConcurrentWriters() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.rangeClosed(1, 10_000).forEach(id -> executor.execute(() -> {
+            repository.save(new Blog(id, "editor-" + (id % 4), "Content"));
+            if (id % 2 == 0) {
+                repository.deleteById(id);
+            }
+        }));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(repository.count()).isEqualTo(5_000);
+        assertThat(repository.findByAuthor("editor-1")).hasSize(2_500);
+        assertThat(repository.findByAuthor("editor-2")).isEmpty();
+    }
+
+    @Test
+    void indexesTheContentThatWinsConcurrentUpdates() throws InterruptedException {
+        var blog = new Blog(1, "editor-1", "Content");
+        var comment = new Comment(1, "viewer", "Comment");
+        repository.save(blog);
+        repository.addComment(blog, comment);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.rangeClosed(1, 2_000).forEach(i -> executor.execute(() -> {
+            repository.updateContent(blog, "blogword" + i);
+            repository.updateComment(blog, comment, "commentword" + i);
+        }));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(repository.search(blog.getContent(), 0, 10)).extracting(SearchHit::commentId).containsExactly((Integer) null);
+        assertThat(repository.search(comment.getContent(), 0, 10)).extracting(SearchHit::commentId).containsExactly(1);
+        // Only the winning content is left in the index
+        assertThat(IntStream.rangeClosed(1, 2_000).mapToObj(i -> "blogword" + i).filter(word -> !word.equals(blog.getContent())))
+                .allMatch(word -> repository.search(word, 0, 1).isEmpty());
+    }
+
+    @Test
+    void readersSeeConsistentCommentsWhileWritersChurn() throws InterruptedException {
+        var blog = new Blog(1, "editor-1", "Content");
+        repository.save(blog);
+        var unordered = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.rangeClosed(1, 10_000).forEach(id -> executor.execute(() -> {
+            repository.addComment(blog, new Comment(id, "viewer", "Comment " + id));
+            if (id % 2 == 0) {
+                repository.removeComment(blog, id);
+            }
+            var comments = blog.getComments();
+            for (int i = 1; i < comments.size(); i++) {
+                if (comments.get(i - 1).getId() >= comments.get(i).getId()) {
+                    unordered.incrementAndGet();
+                }
+            }
+        }));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(unordered).hasValue(0);
+
+        assertThat(blog.getComments()).hasSize(5_000).allMatch(comment -> comment.getId() % 2 == 1);
+        assertThat(blog.getComments()).isSameAs(blog.getComments());
+        assertThat(repository.lastCommentId()).isEqualTo(10_000);
+    }
+}
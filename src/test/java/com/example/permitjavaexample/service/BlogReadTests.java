@@ -0,0 +1,93 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.DecisionKey;
+import com.example.permitjavaexample.exception.ForbiddenAccessException;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.Comment;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reads against a {@link FakePermitServer} that allows everything, with single decisions denied
+ * through the decision cache, so a blog or comment is hidden from one user only.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BlogReadTests {
+    @TempDir
+    Path journalDir;
+
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private BlogService blogService;
+    private DecisionCache decisionCache;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=read-test",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).run();
+        blogService = context.getBean(BlogService.class);
+        decisionCache = context.getBean(DecisionCache.class);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private void deny(User user, Blog blog) {
+        decisionCache.put(DecisionKey.of(user, "read", blog.toResource()), false);
+    }
+
+    private void deny(User user, Comment comment) {
+        decisionCache.put(DecisionKey.of(user, "read", comment.toResource()), false);
+    }
+
+    @Test
+    void hidesCommentsTheUserMayNotRead() {
+        var author = new User.Builder("read-author").build();
+        var reader = new User.Builder("read-reader").build();
+        var blog = blogService.addBlog(author, Blog.DEFAULT_TENANT, "Blog with a hidden comment");
+        var shown = blogService.addComment(author, Blog.DEFAULT_TENANT, blog.getId(), "Shown");
+        var hidden = blogService.addComment(author, Blog.DEFAULT_TENANT, blog.getId(), "Hidden");
+        deny(reader, hidden);
+
+        assertThat(blogService.getBlog(reader, Blog.DEFAULT_TENANT, blog.getId()).comments()).containsExactly(shown);
+        assertThat(blogService.getBlog(author, Blog.DEFAULT_TENANT, blog.getId()).comments()).containsExactly(shown, hidden);
+        var page = blogService.getBlogPage(reader, Blog.DEFAULT_TENANT, "read-author", null, 10, null);
+        assertThat(page.blogs()).singleElement().satisfies(view -> assertThat(view.comments()).containsExactly(shown));
+        assertThat(blogService.getComments(reader, Blog.DEFAULT_TENANT, blog.getId())).containsExactly(shown);
+    }
+
+    @Test
+    void refusesBlogsTheUserMayNotRead() {
+        var author = new User.Builder("hidden-author").build();
+        var reader = new User.Builder("hidden-reader").build();
+        var blog = blogService.addBlog(author, Blog.DEFAULT_TENANT, "Hidden blog");
+        deny(reader, blog);
+
+        assertThat(blogService.getBlogPage(reader, Blog.DEFAULT_TENANT, "hidden-author", null, 10, 0).blogs()).isEmpty();
+        assertThatThrownBy(() -> blogService.getBlog(reader, Blog.DEFAULT_TENANT, blog.getId())).isInstanceOf(ForbiddenAccessException.class);
+    }
+}
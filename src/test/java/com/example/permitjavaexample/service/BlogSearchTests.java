@@ -0,0 +1,110 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.authorization.DecisionCache;
+import com.example.permitjavaexample.authorization.DecisionKey;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.model.SearchResult;
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import com.example.permitjavaexample.repository.SearchHit;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Searches against a {@link FakePermitServer} that denies half of the checks, so most searches
+ * need more than one block of candidates authorized.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BlogSearchTests {
+    private static final int BLOGS = 300;
+
+    @TempDir
+    Path journalDir;
+
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private BlogService blogService;
+    private CountingRepository blogRepository;
+
+    /**
+     * Counts how often the search index is asked to rank matches.
+     */
+    static class CountingRepository extends InMemoryBlogRepository {
+        final AtomicInteger searches = new AtomicInteger();
+
+        @Override
+        public List<SearchHit> search(String query, int offset, int limit) {
+            searches.incrementAndGet();
+            return super.search(query, offset, limit);
+        }
+    }
+
+    // Not a @Configuration, so component scanning leaves it to this test's context
+    static class CountingStore {
+        @Bean
+        @Primary
+        BlogRepository countingRepository() {
+            return new CountingRepository();
+        }
+    }
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class, CountingStore.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=search-test",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).run();
+        blogService = context.getBean(BlogService.class);
+        blogRepository = (CountingRepository) context.getBean("countingRepository");
+        for (int id = 1; id <= BLOGS; id++) {
+            // Blogs with more needles rank higher
+            blogRepository.save(new Blog(id, "search-editor", "needle ".repeat(1 + id % 7) + "in blog " + id));
+        }
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    @Test
+    void ranksOnceAndAuthorizesInBlocks() {
+        var user = new User.Builder("search-reader").build();
+        // Only the blogs themselves are left to chance
+        context.getBean(DecisionCache.class).put(DecisionKey.of(user, "read", BlogService.blogType(Blog.DEFAULT_TENANT)), true);
+        permit.setDenyRate(0.5);
+        try {
+            var results = blogService.search(user, Blog.DEFAULT_TENANT, "needle", BlogService.MAX_SEARCH_RESULTS);
+
+            assertThat(blogRepository.searches).hasValue(1);
+            assertThat(results).hasSize(BlogService.MAX_SEARCH_RESULTS);
+            assertThat(results).extracting(SearchResult::blogId).doesNotHaveDuplicates();
+            assertThat(results).isSortedAccordingTo(Comparator.comparingDouble(SearchResult::score).reversed());
+        } finally {
+            permit.setDenyRate(0);
+        }
+    }
+}
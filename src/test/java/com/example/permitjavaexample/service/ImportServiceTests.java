@@ -0,0 +1,183 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.exception.BadRequestException;
+import com.example.permitjavaexample.exception.ForbiddenAccessException;
+import com.example.permitjavaexample.exception.UnauthorizedException;
+import com.example.permitjavaexample.load.FakePermitServer;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.outbox.PermitOutbox;
+import com.example.permitjavaexample.repository.BlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs imports against the app wired to a {@link FakePermitServer}, with the local policy
+ * deciding checks so roles matter.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ImportServiceTests {
+    @TempDir
+    Path journalDir;
+
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private ImportService importService;
+    private RecordingRepository blogRepository;
+    private User admin;
+    private User editor;
+
+    /**
+     * Records how many Permit writes the outbox held each time a chunk was stored.
+     */
+    static class RecordingRepository extends InMemoryBlogRepository {
+        final List<Integer> pendingAtSave = new CopyOnWriteArrayList<>();
+        volatile PermitOutbox outbox;
+
+        @Override
+        public void saveAll(List<Blog> blogs) {
+            pendingAtSave.add(outbox.pendingCount());
+            super.saveAll(blogs);
+        }
+    }
+
+    // Not a @Configuration, so component scanning leaves it to this test's context
+    static class RecordingStore {
+        @Bean
+        @Primary
+        BlogRepository recordingRepository() {
+            return new RecordingRepository();
+        }
+    }
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class, RecordingStore.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=import-test",
+                "permit.localPolicy.mode=local",
+                "permit.warmUp.enabled=false",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).run();
+        importService = context.getBean(ImportService.class);
+        blogRepository = (RecordingRepository) context.getBean("recordingRepository");
+        blogRepository.outbox = context.getBean(PermitOutbox.class);
+        var userService = context.getBean(UserService.class);
+        userService.assignRole(userService.signup("import-admin"), Blog.DEFAULT_TENANT, "admin");
+        userService.assignRole(userService.signup("import-editor"), Blog.DEFAULT_TENANT, "editor");
+        admin = userService.authenticate("Bearer import-admin");
+        editor = userService.authenticate("Bearer import-editor");
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private ImportJob importBlogs(User user, String ndjson) {
+        return importService.importBlogs(user, Blog.DEFAULT_TENANT, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void importsBlogsWithTheirComments() {
+        int before = blogRepository.count();
+        var job = importBlogs(admin, """
+                {"author":"author-1","content":"Imported one","comments":[{"author":"reader-1","content":"First!"}]}
+                {"author":"author-2","content":"Imported two"}
+                """);
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getBlogs()).isEqualTo(2);
+        assertThat(job.getComments()).isEqualTo(1);
+        assertThat(blogRepository.count()).isEqualTo(before + 2);
+        assertThat(importService.getJob(admin, Blog.DEFAULT_TENANT, job.getId())).isSameAs(job);
+    }
+
+    @Test
+    void onlyAdminsImport() {
+        int before = blogRepository.count();
+        var body = """
+                {"author":"author-1","content":"Not imported"}
+                """;
+
+        assertThatThrownBy(() -> importBlogs(editor, body)).isInstanceOf(ForbiddenAccessException.class);
+        assertThatThrownBy(() -> importBlogs(null, body)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> importService.getJobs(editor, Blog.DEFAULT_TENANT)).isInstanceOf(ForbiddenAccessException.class);
+        assertThat(blogRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void rejectsInvalidItems() {
+        int before = blogRepository.count();
+
+        assertThatThrownBy(() -> importBlogs(admin, """
+                {"content":"No author"}
+                """)).isInstanceOf(BadRequestException.class).hasMessageContaining("author and content");
+        assertThatThrownBy(() -> importBlogs(admin, """
+                {"author":"author-1","content":"Fine","comments":[{"author":"reader-1"}]}
+                """)).isInstanceOf(BadRequestException.class).hasMessageContaining("comment");
+        assertThatThrownBy(() -> importBlogs(admin, """
+                {"author":"author-1","content":"Cut off
+                """)).isInstanceOf(BadRequestException.class).hasMessageContaining("Invalid import item");
+        assertThat(blogRepository.count()).isEqualTo(before);
+        assertThat(importService.getJobs(admin, Blog.DEFAULT_TENANT))
+                .filteredOn(job -> job.getStatus() == ImportJob.Status.FAILED).hasSizeGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void importsRepeatedContent() {
+        int before = blogRepository.count();
+
+        var job = importBlogs(admin, """
+                {"author":"author-1","content":"Twice"}
+                {"author":"author-1","content":"Twice"}
+                """);
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getBlogs()).isEqualTo(2);
+        assertThat(blogRepository.count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void journalsPermitWritesBeforeStoringTheChunk() throws InterruptedException {
+        blogRepository.pendingAtSave.clear();
+        permit.setApiErrorRate(1.0);
+        ImportJob job;
+        try {
+            job = importBlogs(admin, """
+                    {"author":"author-1","content":"Deferred one","comments":[{"author":"reader-1","content":"Deferred comment"}]}
+                    {"author":"author-2","content":"Deferred two","comments":[{"author":"reader-2","content":"Another"}]}
+                    """);
+        } finally {
+            permit.setApiErrorRate(0);
+        }
+
+        // Per blog a resource and its author role, per comment a resource and its parent relation
+        assertThat(job.getDeferred()).isEqualTo(8);
+        assertThat(blogRepository.pendingAtSave).singleElement().satisfies(pending -> assertThat(pending).isGreaterThanOrEqualTo(8));
+        assertThat(context.getBean(PermitOutbox.class).awaitIdle(Duration.ofSeconds(30))).isTrue();
+    }
+}
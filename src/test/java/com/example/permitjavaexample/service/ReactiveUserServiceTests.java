@@ -0,0 +1,112 @@
+package com.example.permitjavaexample.service;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.authorization.PdpGuard;
+import com.example.permitjavaexample.exception.UnauthorizedException;
+import com.example.permitjavaexample.load.FakePermitServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.permit.sdk.enforcement.Resource;
+import io.permit.sdk.enforcement.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the WebFlux stack's authorization against a {@link FakePermitServer} acting as the PDP.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveUserServiceTests {
+    private static final int MAX_CONNECTIONS = 2;
+
+    @TempDir
+    Path journalDir;
+
+    private FakePermitServer permit;
+    private ConfigurableApplicationContext context;
+    private ReactiveUserService userService;
+
+    @BeforeAll
+    void setUpAll() throws IOException {
+        permit = new FakePermitServer();
+        context = new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=reactive-test",
+                "permit.warmUp.enabled=false",
+                "permit.http.maxConnections=" + MAX_CONNECTIONS,
+                "permit.resilience.slidingWindowSize=4",
+                "permit.resilience.minimumNumberOfCalls=4",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal")
+        ).profiles("reactive").run();
+        userService = context.getBean(ReactiveUserService.class);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        context.close();
+        permit.close();
+    }
+
+    private static Resource blog(int id) {
+        return new Resource.Builder("blog").withKey(Integer.toString(id)).withTenant("default").build();
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheSharedCheckRunning() throws Exception {
+        var user = new User.Builder("cancelling-user").build();
+        permit.setPdpLatency(Duration.ofMillis(300));
+        try {
+            var first = userService.isPermitted(user, "read", blog(1)).subscribe();
+            var second = userService.isPermitted(user, "read", blog(1)).toFuture();
+            first.dispose();
+
+            assertThat(second.get(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            permit.setPdpLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    void rejectsChecksWithoutAConnectionWithoutOpeningTheBreaker() {
+        var user = new User.Builder("busy-user").build();
+        permit.setPdpLatency(Duration.ofMillis(300));
+        try {
+            var decisions = Flux.range(100, 20)
+                    .flatMap(id -> userService.isPermitted(user, "read", blog(id)), 20)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            // Only the checks that got a connection were answered by the PDP, the rest fell back to deny
+            assertThat(decisions).hasSize(20);
+            assertThat(decisions).filteredOn(Boolean::booleanValue).hasSize(MAX_CONNECTIONS);
+        } finally {
+            permit.setPdpLatency(Duration.ZERO);
+        }
+        assertThat(context.getBean(PdpGuard.class).state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        var rejected = context.getBean(MeterRegistry.class).find("permit.fallbacks").tag("reason", PdpGuard.NO_CONNECTION).counters()
+                .stream().mapToDouble(Counter::count).sum();
+        assertThat(rejected).isEqualTo(20 - MAX_CONNECTIONS);
+    }
+
+    @Test
+    void refusesAnonymousUsers() {
+        assertThatThrownBy(() -> userService.authorize(null, "read", blog(1)).block()).isInstanceOf(UnauthorizedException.class);
+        assertThat(userService.isPermitted(null, "read", blog(1)).block()).isFalse();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.permitjavaexample.startup;
+
+import com.example.permitjavaexample.BlogApplication;
+import com.example.permitjavaexample.load.FakePermitServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermitWarmUpTests {
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void warmedDecisionsAnswerRealRequests() throws Exception {
+        try (var permit = new FakePermitServer()) {
+            // Enriched with attributes, so a bare user would be cached under a different key
+            permit.putUser("reader-1", Map.of("department", "news"));
+            try (var context = start(permit)) {
+                var warmUp = context.getBean(PermitWarmUp.class);
+                long deadline = System.nanoTime() + 30_000_000_000L;
+                while (!Status.UP.equals(warmUp.health().getStatus()) && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+                assertThat(warmUp.health().getDetails()).containsEntry("warmUp", "complete");
+                // Bearer tokens are user keys, so a user created here could be impersonated
+                assertThat(permit.requestCounts().keySet()).noneMatch(route -> route.startsWith("POST users") || route.endsWith("/roles"));
+
+                permit.resetCounts();
+                var http = HttpClient.newHttpClient();
+                var baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                var response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/blogs"))
+                        .header("Authorization", "Bearer reader-1")
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(permit.requestCounts().keySet()).noneMatch(route -> route.contains("/allowed"));
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(FakePermitServer permit) {
+        return new SpringApplicationBuilder(BlogApplication.class).properties(
+                "server.port=0",
+                "permit.pdpUrl=" + permit.url(),
+                "permit.apiUrl=" + permit.url(),
+                "permit.apiKey=warm-up-test",
+                "permit.outbox.journal=" + journalDir.resolve("permit-outbox.journal"),
+                "permit.warmUp.users=reader-1",
+                "permit.warmUp.iterations=10"
+        ).run();
+    }
+}
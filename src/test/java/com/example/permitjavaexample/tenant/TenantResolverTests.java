@@ -0,0 +1,56 @@
+package com.example.permitjavaexample.tenant;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.exception.BadRequestException;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.model.Blog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantResolverTests {
+
+    private static PermitProperties tenancy(boolean enabled) {
+        var properties = new PermitProperties();
+        var tenancy = properties.getTenancy();
+        tenancy.setEnabled(enabled);
+        tenancy.setTenants(List.of("acme"));
+        var shard = new PermitProperties.Tenancy.Shard();
+        shard.setTenants(List.of("globex"));
+        tenancy.setShards(Map.of("eu", shard));
+        return properties;
+    }
+
+    @Test
+    void resolvesKnownTenants() {
+        var resolver = new TenantResolver(tenancy(true));
+
+        assertThat(resolver.resolve("acme")).isEqualTo("acme");
+        assertThat(resolver.resolve("globex")).isEqualTo("globex");
+        assertThat(resolver.resolve(Blog.DEFAULT_TENANT)).isEqualTo(Blog.DEFAULT_TENANT);
+        assertThat(resolver.resolve(null)).isEqualTo(Blog.DEFAULT_TENANT);
+        assertThat(resolver.resolve("")).isEqualTo(Blog.DEFAULT_TENANT);
+    }
+
+    @Test
+    void rejectsUnknownAndInvalidTenants() {
+        var resolver = new TenantResolver(tenancy(true));
+
+        assertThatThrownBy(() -> resolver.resolve("initech")).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> resolver.resolve("../acme")).isInstanceOf(BadRequestException.class);
+        assertThat(resolver.isKnown("initech")).isFalse();
+    }
+
+    @Test
+    void usesTheDefaultTenantWhenTenancyIsDisabled() {
+        var resolver = new TenantResolver(tenancy(false));
+
+        assertThat(resolver.resolve("acme")).isEqualTo(Blog.DEFAULT_TENANT);
+        assertThat(resolver.isKnown("acme")).isFalse();
+        assertThat(resolver.isKnown(Blog.DEFAULT_TENANT)).isTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.permitjavaexample.tenant;
+
+import com.example.permitjavaexample.config.PermitProperties;
+import com.example.permitjavaexample.config.StoreProperties;
+import com.example.permitjavaexample.exception.ResourceNotFoundException;
+import com.example.permitjavaexample.model.Blog;
+import com.example.permitjavaexample.repository.DurableBlogRepository;
+import com.example.permitjavaexample.repository.InMemoryBlogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantShardsTests {
+    @TempDir
+    Path directory;
+
+    private StoreProperties durable() {
+        var properties = new StoreProperties();
+        properties.setDurable(true);
+        properties.setDirectory(directory.toString());
+        return properties;
+    }
+
+    private static TenantResolver resolver(String... tenants) {
+        var properties = new PermitProperties();
+        properties.getTenancy().setEnabled(true);
+        properties.getTenancy().setTenants(List.of(tenants));
+        return new TenantResolver(properties);
+    }
+
+    @Test
+    void opensNoStoreForUnknownTenants() throws IOException {
+        try (var shards = new TenantShards(new InMemoryBlogRepository(), durable(), resolver("acme"))) {
+            assertThatThrownBy(() -> shards.repository("initech")).isInstanceOf(ResourceNotFoundException.class);
+            assertThatThrownBy(() -> shards.readRepository("initech")).isInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(directory.resolve("tenants").resolve("initech")).doesNotExist();
+    }
+
+    @Test
+    void opensKnownTenantStoresOnTheirFirstWrite() throws IOException {
+        try (var shards = new TenantShards(new InMemoryBlogRepository(), durable(), resolver("acme"))) {
+            assertThat(shards.readRepository("acme").findAll()).isEmpty();
+            assertThat(shards.readRepository("acme").version()).isZero();
+            assertThat(directory.resolve("tenants").resolve("acme")).doesNotExist();
+
+            shards.repository("acme").save(new Blog(1, "acme", "editor-1", "In acme"));
+
+            assertThat(Files.isDirectory(directory.resolve("tenants").resolve("acme"))).isTrue();
+            assertThat(shards.readRepository("acme").findById(1)).isPresent();
+            assertThat(shards.readRepository(Blog.DEFAULT_TENANT).findById(1)).isEmpty();
+        }
+    }
+
+    @Test
+    void keepsIdsOfTenantsNoLongerKnownWithoutServingThem() throws IOException {
+        try (var acme = new DurableBlogRepository(durable(), directory.resolve("tenants").resolve("acme"), "acme")) {
+            acme.save(new Blog(7, "acme", "editor-1", "In acme"));
+        }
+
+        try (var shards = new TenantShards(new InMemoryBlogRepository(), durable(), resolver())) {
+            assertThat(shards.lastBlogId()).isEqualTo(7);
+            assertThatThrownBy(() -> shards.readRepository("acme")).isInstanceOf(ResourceNotFoundException.class);
+        }
+        try (var shards = new TenantShards(new InMemoryBlogRepository(), durable(), resolver("acme"))) {
+            assertThat(shards.readRepository("acme").findById(7)).isPresent();
+        }
+    }
+}